@@ -1,5 +1,6 @@
 package com.github.ghrocs.config;
 
+import java.time.Duration;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -9,4 +10,451 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  * See {@link tech.jhipster.config.JHipsterProperties} for a good example.
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
-public class ApplicationProperties {}
+public class ApplicationProperties {
+
+    private final Database database = new Database();
+
+    private final Cache cache = new Cache();
+
+    private final PasswordHashing passwordHashing = new PasswordHashing();
+
+    private final LoginRateLimit loginRateLimit = new LoginRateLimit();
+
+    private final MailQueue mailQueue = new MailQueue();
+
+    private final MailOutbox mailOutbox = new MailOutbox();
+
+    public Database getDatabase() {
+        return database;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public PasswordHashing getPasswordHashing() {
+        return passwordHashing;
+    }
+
+    public LoginRateLimit getLoginRateLimit() {
+        return loginRateLimit;
+    }
+
+    public MailQueue getMailQueue() {
+        return mailQueue;
+    }
+
+    public MailOutbox getMailOutbox() {
+        return mailOutbox;
+    }
+
+    public static class Database {
+
+        /**
+         * Maximum number of rows inserted into a link table by a single statement.
+         */
+        private int linkTableBatchSize = 100;
+
+        /**
+         * Number of elements of a bulk import validated and inserted by a single statement, in their own transaction.
+         */
+        private int importBatchSize = 500;
+
+        /**
+         * Number of non-activated users deleted by a single statement, in their own transaction.
+         */
+        private int purgeBatchSize = 1000;
+
+        public int getLinkTableBatchSize() {
+            return linkTableBatchSize;
+        }
+
+        public void setLinkTableBatchSize(int linkTableBatchSize) {
+            this.linkTableBatchSize = linkTableBatchSize;
+        }
+
+        public int getImportBatchSize() {
+            return importBatchSize;
+        }
+
+        public void setImportBatchSize(int importBatchSize) {
+            this.importBatchSize = importBatchSize;
+        }
+
+        public int getPurgeBatchSize() {
+            return purgeBatchSize;
+        }
+
+        public void setPurgeBatchSize(int purgeBatchSize) {
+            this.purgeBatchSize = purgeBatchSize;
+        }
+    }
+
+    public static class Cache {
+
+        private final ReferenceData referenceData = new ReferenceData();
+
+        private final UserDetails userDetails = new UserDetails();
+
+        private final Tokens tokens = new Tokens();
+
+        public ReferenceData getReferenceData() {
+            return referenceData;
+        }
+
+        public UserDetails getUserDetails() {
+            return userDetails;
+        }
+
+        public Tokens getTokens() {
+            return tokens;
+        }
+
+        /**
+         * The caches of the regions and countries, which are invalidated by their writes on this instance only.
+         */
+        public static class ReferenceData {
+
+            /**
+             * Maximum number of entries of every cache.
+             */
+            private long maximumSize = 1000;
+
+            /**
+             * Time after which an entry is read again from the database, which bounds the staleness of the writes of other instances.
+             */
+            private Duration timeToLive = Duration.ofMinutes(10);
+
+            public long getMaximumSize() {
+                return maximumSize;
+            }
+
+            public void setMaximumSize(long maximumSize) {
+                this.maximumSize = maximumSize;
+            }
+
+            public Duration getTimeToLive() {
+                return timeToLive;
+            }
+
+            public void setTimeToLive(Duration timeToLive) {
+                this.timeToLive = timeToLive;
+            }
+        }
+
+        /**
+         * The cache of the users read to authenticate, which is evicted by the writes of a user on this instance only.
+         */
+        public static class UserDetails {
+
+            /**
+             * Maximum number of cached users, for each of the login and email lookups.
+             */
+            private long maximumSize = 10000;
+
+            /**
+             * Time after which a user is read again from the database, which bounds how long a password or authority changed on another
+             * instance is still accepted here.
+             */
+            private Duration timeToLive = Duration.ofMinutes(1);
+
+            public long getMaximumSize() {
+                return maximumSize;
+            }
+
+            public void setMaximumSize(long maximumSize) {
+                this.maximumSize = maximumSize;
+            }
+
+            public Duration getTimeToLive() {
+                return timeToLive;
+            }
+
+            public void setTimeToLive(Duration timeToLive) {
+                this.timeToLive = timeToLive;
+            }
+        }
+
+        /**
+         * The cache of the verified JWT tokens, each one is kept until it expires.
+         */
+        public static class Tokens {
+
+            /**
+             * Maximum number of cached tokens.
+             */
+            private long maximumSize = 10000;
+
+            public long getMaximumSize() {
+                return maximumSize;
+            }
+
+            public void setMaximumSize(long maximumSize) {
+                this.maximumSize = maximumSize;
+            }
+        }
+    }
+
+    /**
+     * The threads hashing and checking the passwords, away from the event loops.
+     */
+    public static class PasswordHashing {
+
+        /**
+         * Number of threads, each one hashing a single password at a time.
+         */
+        private int poolSize = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * Maximum number of passwords waiting for a thread, above which a request is answered with 503 (Service Unavailable).
+         */
+        private int queueCapacity = 100;
+
+        /**
+         * Target latency of a hash, for which the BCrypt strength fitting the CPU is calibrated and logged at startup, as a hint to
+         * configure the strength: the calibration is skipped when it's not set.
+         */
+        private Duration targetLatency;
+
+        /**
+         * BCrypt strength, between 4 and 31, the same on every instance: the hashes of a lower strength are upgraded once their user
+         * authenticates.
+         */
+        private int strength = 10;
+
+        public int getPoolSize() {
+            return poolSize;
+        }
+
+        public void setPoolSize(int poolSize) {
+            this.poolSize = poolSize;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public Duration getTargetLatency() {
+            return targetLatency;
+        }
+
+        public void setTargetLatency(Duration targetLatency) {
+            this.targetLatency = targetLatency;
+        }
+
+        public int getStrength() {
+            return strength;
+        }
+
+        public void setStrength(int strength) {
+            this.strength = strength;
+        }
+    }
+
+    /**
+     * The limits of the login attempts, checked before the password.
+     */
+    public static class LoginRateLimit {
+
+        /**
+         * Attempts of a login, which are given back once it's authenticated: only the failed attempts are limited.
+         */
+        private final Bucket perLogin = new Bucket(10, Duration.ofMinutes(1));
+
+        /**
+         * Attempts of a client IP address.
+         */
+        private final Bucket perIp = new Bucket(100, Duration.ofMillis(100));
+
+        /**
+         * Maximum number of logins and of IP addresses tracked.
+         */
+        private long maximumSize = 100000;
+
+        public Bucket getPerLogin() {
+            return perLogin;
+        }
+
+        public Bucket getPerIp() {
+            return perIp;
+        }
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        /**
+         * A token bucket: an attempt takes a token, a token is given back every refill period, up to the capacity.
+         */
+        public static class Bucket {
+
+            /**
+             * Maximum number of attempts in a burst.
+             */
+            private int capacity;
+
+            /**
+             * Time to give back one attempt.
+             */
+            private Duration refillPeriod;
+
+            public Bucket(int capacity, Duration refillPeriod) {
+                this.capacity = capacity;
+                this.refillPeriod = refillPeriod;
+            }
+
+            public int getCapacity() {
+                return capacity;
+            }
+
+            public void setCapacity(int capacity) {
+                this.capacity = capacity;
+            }
+
+            public Duration getRefillPeriod() {
+                return refillPeriod;
+            }
+
+            public void setRefillPeriod(Duration refillPeriod) {
+                this.refillPeriod = refillPeriod;
+            }
+        }
+    }
+
+    /**
+     * The queue of the outgoing emails, sent in batches over a single SMTP connection each.
+     */
+    public static class MailQueue {
+
+        /**
+         * Maximum number of emails waiting to be sent, the next ones are dropped.
+         */
+        private int capacity = 10000;
+
+        /**
+         * Maximum number of emails sent over a single connection.
+         */
+        private int batchSize = 50;
+
+        /**
+         * Maximum time an email waits for the next ones of its batch.
+         */
+        private Duration flushInterval = Duration.ofMillis(200);
+
+        /**
+         * Number of threads preparing and sending the batches, which is the maximum number of SMTP connections.
+         */
+        private int poolSize = 2;
+
+        /**
+         * Maximum number of attempts to send an email.
+         */
+        private int maxAttempts = 3;
+
+        /**
+         * Delay before the second attempt, doubled for the next ones.
+         */
+        private Duration backoff = Duration.ofSeconds(1);
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getFlushInterval() {
+            return flushInterval;
+        }
+
+        public void setFlushInterval(Duration flushInterval) {
+            this.flushInterval = flushInterval;
+        }
+
+        public int getPoolSize() {
+            return poolSize;
+        }
+
+        public void setPoolSize(int poolSize) {
+            this.poolSize = poolSize;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public Duration getBackoff() {
+            return backoff;
+        }
+
+        public void setBackoff(Duration backoff) {
+            this.backoff = backoff;
+        }
+    }
+
+    /**
+     * The outbox of the emails to send to the users, written in the same transaction as the user.
+     */
+    public static class MailOutbox {
+
+        /**
+         * Maximum number of emails moved from the outbox to the mail queue at each poll.
+         */
+        private int batchSize = 100;
+
+        /**
+         * Delay between the end of a poll and the start of the next one, as an ISO-8601 duration.
+         */
+        private Duration pollInterval = Duration.ofSeconds(1);
+
+        /**
+         * Time an email is locked once it's moved to the mail queue: an email, which isn't sent by then, is moved again by a later poll.
+         */
+        private Duration lockDuration = Duration.ofMinutes(10);
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(Duration pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+
+        public Duration getLockDuration() {
+            return lockDuration;
+        }
+
+        public void setLockDuration(Duration lockDuration) {
+            this.lockDuration = lockDuration;
+        }
+    }
+}
@@ -2,7 +2,9 @@ package com.github.ghrocs.config;
 
 import static org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers.pathMatchers;
 
+import com.github.ghrocs.security.AdaptiveBCryptPasswordEncoder;
 import com.github.ghrocs.security.AuthoritiesConstants;
+import com.github.ghrocs.security.PasswordHashingScheduler;
 import com.github.ghrocs.security.jwt.JWTFilter;
 import com.github.ghrocs.security.jwt.TokenProvider;
 import com.github.ghrocs.web.filter.SpaWebFilter;
@@ -15,8 +17,8 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
 import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsPasswordService;
 import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.server.SecurityWebFilterChain;
 import org.springframework.security.web.server.header.ReferrerPolicyServerHttpHeadersWriter;
@@ -38,34 +40,52 @@ public class SecurityConfiguration {
 
     private final SecurityProblemSupport problemSupport;
 
+    private final PasswordHashingScheduler passwordHashingScheduler;
+
+    private final ApplicationProperties applicationProperties;
+
     public SecurityConfiguration(
         ReactiveUserDetailsService userDetailsService,
         TokenProvider tokenProvider,
         JHipsterProperties jHipsterProperties,
-        SecurityProblemSupport problemSupport
+        SecurityProblemSupport problemSupport,
+        PasswordHashingScheduler passwordHashingScheduler,
+        ApplicationProperties applicationProperties
     ) {
         this.userDetailsService = userDetailsService;
         this.tokenProvider = tokenProvider;
         this.jHipsterProperties = jHipsterProperties;
         this.problemSupport = problemSupport;
+        this.passwordHashingScheduler = passwordHashingScheduler;
+        this.applicationProperties = applicationProperties;
     }
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        ApplicationProperties.PasswordHashing passwordHashing = applicationProperties.getPasswordHashing();
+        if (passwordHashing.getTargetLatency() != null) {
+            AdaptiveBCryptPasswordEncoder.calibrate(passwordHashing.getTargetLatency(), passwordHashing.getStrength());
+        }
+        return new AdaptiveBCryptPasswordEncoder(passwordHashing.getStrength());
     }
 
     @Bean
-    public ReactiveAuthenticationManager reactiveAuthenticationManager() {
+    public ReactiveAuthenticationManager reactiveAuthenticationManager(ReactiveUserDetailsPasswordService userDetailsPasswordService) {
         UserDetailsRepositoryReactiveAuthenticationManager authenticationManager = new UserDetailsRepositoryReactiveAuthenticationManager(
             userDetailsService
         );
         authenticationManager.setPasswordEncoder(passwordEncoder());
+        authenticationManager.setScheduler(passwordHashingScheduler.get());
+        // the hashes of a lower strength are upgraded once their user authenticates
+        authenticationManager.setUserDetailsPasswordService(userDetailsPasswordService);
         return authenticationManager;
     }
 
     @Bean
-    public SecurityWebFilterChain springSecurityFilterChain(ServerHttpSecurity http) {
+    public SecurityWebFilterChain springSecurityFilterChain(
+        ServerHttpSecurity http,
+        ReactiveAuthenticationManager reactiveAuthenticationManager
+    ) {
         // @formatter:off
         http
             .securityMatcher(new NegatedServerWebExchangeMatcher(new OrServerWebExchangeMatcher(
@@ -76,7 +96,7 @@ public class SecurityConfiguration {
                 .disable()
             .addFilterAt(new SpaWebFilter(), SecurityWebFiltersOrder.AUTHENTICATION)
             .addFilterAt(new JWTFilter(tokenProvider), SecurityWebFiltersOrder.HTTP_BASIC)
-            .authenticationManager(reactiveAuthenticationManager())
+            .authenticationManager(reactiveAuthenticationManager)
             .exceptionHandling()
                 .accessDeniedHandler(problemSupport)
                 .authenticationEntryPoint(problemSupport)
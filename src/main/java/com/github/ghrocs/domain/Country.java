@@ -4,6 +4,7 @@ import com.github.ghrocs.domain.enumeration.Language;
 import java.io.Serializable;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.Transient;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.Table;
 
@@ -26,6 +27,12 @@ public class Country implements Serializable {
 
     private Long regionId;
 
+    /**
+     * Incremented by every update, which only applies to the version it was read at.
+     */
+    @Version
+    private Long version;
+
     @Transient
     private Region region;
 
@@ -92,6 +99,19 @@ public class Country implements Serializable {
         this.regionId = region;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public Country version(Long version) {
+        this.version = version;
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -118,6 +138,7 @@ public class Country implements Serializable {
             "id=" + getId() +
             ", countryName='" + getCountryName() + "'" +
             ", language='" + getLanguage() + "'" +
+            ", version=" + getVersion() +
             "}";
     }
 }
@@ -0,0 +1,120 @@
+package com.github.ghrocs.domain;
+
+import com.github.ghrocs.domain.enumeration.MailTemplate;
+import java.io.Serializable;
+import java.time.Instant;
+import javax.validation.constraints.NotNull;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * An email to send to a user, written in the same transaction as the change of the user.
+ */
+@Table("jhi_mail_outbox")
+public class OutboxMail implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private Long id;
+
+    @NotNull
+    @Column("user_id")
+    private Long userId;
+
+    @NotNull
+    @Column("template")
+    private MailTemplate template;
+
+    @NotNull
+    @Column("created_date")
+    private Instant createdDate = Instant.now();
+
+    @Column("locked_until")
+    private Instant lockedUntil;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public OutboxMail id(Long id) {
+        this.id = id;
+        return this;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public OutboxMail userId(Long userId) {
+        this.userId = userId;
+        return this;
+    }
+
+    public MailTemplate getTemplate() {
+        return template;
+    }
+
+    public void setTemplate(MailTemplate template) {
+        this.template = template;
+    }
+
+    public OutboxMail template(MailTemplate template) {
+        this.template = template;
+        return this;
+    }
+
+    public Instant getCreatedDate() {
+        return createdDate;
+    }
+
+    public void setCreatedDate(Instant createdDate) {
+        this.createdDate = createdDate;
+    }
+
+    public Instant getLockedUntil() {
+        return lockedUntil;
+    }
+
+    public void setLockedUntil(Instant lockedUntil) {
+        this.lockedUntil = lockedUntil;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof OutboxMail)) {
+            return false;
+        }
+        return id != null && id.equals(((OutboxMail) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "OutboxMail{" +
+            "id=" + getId() +
+            ", userId=" + getUserId() +
+            ", template='" + getTemplate() + "'" +
+            ", createdDate='" + getCreatedDate() + "'" +
+            ", lockedUntil='" + getLockedUntil() + "'" +
+            "}";
+    }
+}
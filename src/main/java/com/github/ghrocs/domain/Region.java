@@ -3,6 +3,7 @@ package com.github.ghrocs.domain;
 import java.io.Serializable;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.Transient;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.Table;
 
@@ -20,6 +21,12 @@ public class Region implements Serializable {
     @Column("region_name")
     private String regionName;
 
+    /**
+     * Incremented by every update, which only applies to the version it was read at.
+     */
+    @Version
+    private Long version;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
     public Long getId() {
         return id;
@@ -47,6 +54,19 @@ public class Region implements Serializable {
         this.regionName = regionName;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public Region version(Long version) {
+        this.version = version;
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -72,6 +92,7 @@ public class Region implements Serializable {
         return "Region{" +
             "id=" + getId() +
             ", regionName='" + getRegionName() + "'" +
+            ", version=" + getVersion() +
             "}";
     }
 }
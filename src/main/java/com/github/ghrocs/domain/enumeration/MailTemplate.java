@@ -0,0 +1,10 @@
+package com.github.ghrocs.domain.enumeration;
+
+/**
+ * The templates of the emails sent to the users.
+ */
+public enum MailTemplate {
+    ACTIVATION,
+    CREATION,
+    PASSWORD_RESET,
+}
@@ -1,6 +1,7 @@
 package com.github.ghrocs.repository;
 
 import com.github.ghrocs.domain.Country;
+import com.github.ghrocs.service.Keyset;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
@@ -38,9 +39,11 @@ interface CountryRepositoryInternal {
     <S extends Country> Mono<S> insert(S entity);
     <S extends Country> Mono<S> save(S entity);
     Mono<Integer> update(Country entity);
+    Mono<Country> updateNonNullFields(Country entity);
 
     Flux<Country> findAll();
     Mono<Country> findById(Long id);
     Flux<Country> findAllBy(Pageable pageable);
     Flux<Country> findAllBy(Pageable pageable, Criteria criteria);
+    Flux<Country> findAllBy(Keyset keyset);
 }
@@ -4,10 +4,12 @@ import static org.springframework.data.relational.core.query.Criteria.where;
 import static org.springframework.data.relational.core.query.Query.query;
 
 import com.github.ghrocs.domain.Country;
+import com.github.ghrocs.domain.Region;
 import com.github.ghrocs.domain.enumeration.Language;
 import com.github.ghrocs.repository.rowmapper.CountryRowMapper;
 import com.github.ghrocs.repository.rowmapper.RegionRowMapper;
 import com.github.ghrocs.service.EntityManager;
+import com.github.ghrocs.service.Keyset;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
 import java.util.ArrayList;
@@ -16,9 +18,12 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.function.BiFunction;
+import java.util.function.Function;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.Update;
 import org.springframework.data.relational.core.sql.Column;
 import org.springframework.data.relational.core.sql.Expression;
 import org.springframework.data.relational.core.sql.Select;
@@ -39,12 +44,14 @@ class CountryRepositoryInternalImpl implements CountryRepositoryInternal {
     private final R2dbcEntityTemplate r2dbcEntityTemplate;
     private final EntityManager entityManager;
 
-    private final RegionRowMapper regionMapper;
-    private final CountryRowMapper countryMapper;
+    private final Function<Row, Region> regionMapper;
+    private final Function<Row, Country> countryMapper;
 
     private static final Table entityTable = Table.aliased("country", EntityManager.ENTITY_ALIAS);
     private static final Table regionTable = Table.aliased("region", "region");
 
+    private static final String SELECT_NAME = "countryWithRegion";
+
     public CountryRepositoryInternalImpl(
         R2dbcEntityTemplate template,
         EntityManager entityManager,
@@ -54,8 +61,8 @@ class CountryRepositoryInternalImpl implements CountryRepositoryInternal {
         this.db = template.getDatabaseClient();
         this.r2dbcEntityTemplate = template;
         this.entityManager = entityManager;
-        this.regionMapper = regionMapper;
-        this.countryMapper = countryMapper;
+        this.regionMapper = regionMapper.withPrefix("region");
+        this.countryMapper = countryMapper.withPrefix(EntityManager.ENTITY_ALIAS);
     }
 
     @Override
@@ -68,34 +75,32 @@ class CountryRepositoryInternalImpl implements CountryRepositoryInternal {
         return createQuery(pageable, criteria).all();
     }
 
+    @Override
+    public Flux<Country> findAllBy(Keyset keyset) {
+        return db
+            .sql(entityManager.createSelect(SELECT_NAME, CountryRepositoryInternalImpl::createSelectFrom, Country.class, keyset, null))
+            .map(this::process)
+            .all();
+    }
+
     RowsFetchSpec<Country> createQuery(Pageable pageable, Criteria criteria) {
+        return db
+            .sql(
+                entityManager.createSelect(SELECT_NAME, CountryRepositoryInternalImpl::createSelectFrom, Country.class, pageable, criteria)
+            )
+            .map(this::process);
+    }
+
+    private static SelectFromAndJoinCondition createSelectFrom() {
         List<Expression> columns = CountrySqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
         columns.addAll(RegionSqlHelper.getColumns(regionTable, "region"));
-        SelectFromAndJoinCondition selectFrom = Select
+        return Select
             .builder()
             .select(columns)
             .from(entityTable)
             .leftOuterJoin(regionTable)
             .on(Column.create("region_id", entityTable))
             .equals(Column.create("id", regionTable));
-
-        String select = entityManager.createSelect(selectFrom, Country.class, pageable, criteria);
-        String alias = entityTable.getReferenceName().getReference();
-        String selectWhere = Optional
-            .ofNullable(criteria)
-            .map(
-                crit ->
-                    new StringBuilder(select)
-                        .append(" ")
-                        .append("WHERE")
-                        .append(" ")
-                        .append(alias)
-                        .append(".")
-                        .append(crit.toString())
-                        .toString()
-            )
-            .orElse(select); // TODO remove once https://github.com/spring-projects/spring-data-jdbc/issues/907 will be fixed
-        return db.sql(selectWhere).map(this::process);
     }
 
     @Override
@@ -109,8 +114,8 @@ class CountryRepositoryInternalImpl implements CountryRepositoryInternal {
     }
 
     private Country process(Row row, RowMetadata metadata) {
-        Country entity = countryMapper.apply(row, "e");
-        entity.setRegion(regionMapper.apply(row, "region"));
+        Country entity = countryMapper.apply(row);
+        entity.setRegion(regionMapper.apply(row));
         return entity;
     }
 
@@ -128,7 +133,9 @@ class CountryRepositoryInternalImpl implements CountryRepositoryInternal {
                 .map(
                     numberOfUpdates -> {
                         if (numberOfUpdates.intValue() <= 0) {
-                            throw new IllegalStateException("Unable to update Country with id = " + entity.getId());
+                            throw new OptimisticLockingFailureException(
+                                "Unable to update Country with id = " + entity.getId() + " and version = " + entity.getVersion()
+                            );
                         }
                         return entity;
                     }
@@ -136,10 +143,43 @@ class CountryRepositoryInternalImpl implements CountryRepositoryInternal {
         }
     }
 
+    @Override
+    public Mono<Country> updateNonNullFields(Country entity) {
+        return entityManager.updateNonNullColumns(
+            entity,
+            row -> {
+                // the updated row isn't joined with its region
+                Country country = countryMapper.apply(row);
+                country.setRegion(country.getRegionId() != null ? new Region().id(country.getRegionId()) : null);
+                return country;
+            }
+        );
+    }
+
     @Override
     public Mono<Integer> update(Country entity) {
-        //fixme is this the proper way?
-        return r2dbcEntityTemplate.update(entity).thenReturn(1);
+        Long version = entity.getVersion();
+        if (version == null) {
+            return Mono.just(0);
+        }
+        // a single statement, which only matches the version the entity was read at, so a concurrent update isn't overwritten
+        return r2dbcEntityTemplate
+            .update(Country.class)
+            .matching(query(where("id").is(entity.getId()).and("version").is(version)))
+            .apply(
+                Update
+                    .update("countryName", entity.getCountryName())
+                    .set("language", entity.getLanguage())
+                    .set("regionId", entity.getRegionId())
+                    .set("version", version + 1)
+            )
+            .doOnNext(
+                numberOfUpdates -> {
+                    if (numberOfUpdates > 0) {
+                        entity.setVersion(version + 1);
+                    }
+                }
+            );
     }
 }
 
@@ -152,6 +192,7 @@ class CountrySqlHelper {
         columns.add(Column.aliased("language", table, columnPrefix + "_language"));
 
         columns.add(Column.aliased("region_id", table, columnPrefix + "_region_id"));
+        columns.add(Column.aliased("version", table, columnPrefix + "_version"));
         return columns;
     }
 }
@@ -0,0 +1,25 @@
+package com.github.ghrocs.repository;
+
+import com.github.ghrocs.domain.OutboxMail;
+import java.time.Instant;
+import java.util.Collection;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Spring Data R2DBC repository for the {@link OutboxMail} entity.
+ */
+@Repository
+public interface OutboxMailRepository extends R2dbcRepository<OutboxMail, Long> {
+    @Query("SELECT * FROM jhi_mail_outbox WHERE locked_until IS NULL OR locked_until <= :now ORDER BY id LIMIT :limit")
+    Flux<OutboxMail> findAllUnlocked(Instant now, int limit);
+
+    @Query("UPDATE jhi_mail_outbox SET locked_until = :lockedUntil WHERE id IN (:ids)")
+    Mono<Void> lockAllByIdIn(Instant lockedUntil, Collection<Long> ids);
+
+    @Query("UPDATE jhi_mail_outbox SET locked_until = NULL WHERE id IN (:ids)")
+    Mono<Void> unlockAllByIdIn(Collection<Long> ids);
+}
@@ -1,6 +1,7 @@
 package com.github.ghrocs.repository;
 
 import com.github.ghrocs.domain.Region;
+import com.github.ghrocs.service.Keyset;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
@@ -30,9 +31,11 @@ interface RegionRepositoryInternal {
     <S extends Region> Mono<S> insert(S entity);
     <S extends Region> Mono<S> save(S entity);
     Mono<Integer> update(Region entity);
+    Mono<Region> updateNonNullFields(Region entity);
 
     Flux<Region> findAll();
     Mono<Region> findById(Long id);
     Flux<Region> findAllBy(Pageable pageable);
     Flux<Region> findAllBy(Pageable pageable, Criteria criteria);
+    Flux<Region> findAllBy(Keyset keyset);
 }
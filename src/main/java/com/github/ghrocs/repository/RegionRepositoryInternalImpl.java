@@ -6,6 +6,7 @@ import static org.springframework.data.relational.core.query.Query.query;
 import com.github.ghrocs.domain.Region;
 import com.github.ghrocs.repository.rowmapper.RegionRowMapper;
 import com.github.ghrocs.service.EntityManager;
+import com.github.ghrocs.service.Keyset;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
 import java.util.ArrayList;
@@ -14,9 +15,12 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.function.BiFunction;
+import java.util.function.Function;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.Update;
 import org.springframework.data.relational.core.sql.Column;
 import org.springframework.data.relational.core.sql.Expression;
 import org.springframework.data.relational.core.sql.Select;
@@ -37,15 +41,17 @@ class RegionRepositoryInternalImpl implements RegionRepositoryInternal {
     private final R2dbcEntityTemplate r2dbcEntityTemplate;
     private final EntityManager entityManager;
 
-    private final RegionRowMapper regionMapper;
+    private final Function<Row, Region> regionMapper;
 
     private static final Table entityTable = Table.aliased("region", EntityManager.ENTITY_ALIAS);
 
+    private static final String SELECT_NAME = "region";
+
     public RegionRepositoryInternalImpl(R2dbcEntityTemplate template, EntityManager entityManager, RegionRowMapper regionMapper) {
         this.db = template.getDatabaseClient();
         this.r2dbcEntityTemplate = template;
         this.entityManager = entityManager;
-        this.regionMapper = regionMapper;
+        this.regionMapper = regionMapper.withPrefix(EntityManager.ENTITY_ALIAS);
     }
 
     @Override
@@ -58,27 +64,23 @@ class RegionRepositoryInternalImpl implements RegionRepositoryInternal {
         return createQuery(pageable, criteria).all();
     }
 
+    @Override
+    public Flux<Region> findAllBy(Keyset keyset) {
+        return db
+            .sql(entityManager.createSelect(SELECT_NAME, RegionRepositoryInternalImpl::createSelectFrom, Region.class, keyset, null))
+            .map(this::process)
+            .all();
+    }
+
     RowsFetchSpec<Region> createQuery(Pageable pageable, Criteria criteria) {
+        return db
+            .sql(entityManager.createSelect(SELECT_NAME, RegionRepositoryInternalImpl::createSelectFrom, Region.class, pageable, criteria))
+            .map(this::process);
+    }
+
+    private static SelectFromAndJoin createSelectFrom() {
         List<Expression> columns = RegionSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
-        SelectFromAndJoin selectFrom = Select.builder().select(columns).from(entityTable);
-
-        String select = entityManager.createSelect(selectFrom, Region.class, pageable, criteria);
-        String alias = entityTable.getReferenceName().getReference();
-        String selectWhere = Optional
-            .ofNullable(criteria)
-            .map(
-                crit ->
-                    new StringBuilder(select)
-                        .append(" ")
-                        .append("WHERE")
-                        .append(" ")
-                        .append(alias)
-                        .append(".")
-                        .append(crit.toString())
-                        .toString()
-            )
-            .orElse(select); // TODO remove once https://github.com/spring-projects/spring-data-jdbc/issues/907 will be fixed
-        return db.sql(selectWhere).map(this::process);
+        return Select.builder().select(columns).from(entityTable);
     }
 
     @Override
@@ -92,7 +94,7 @@ class RegionRepositoryInternalImpl implements RegionRepositoryInternal {
     }
 
     private Region process(Row row, RowMetadata metadata) {
-        Region entity = regionMapper.apply(row, "e");
+        Region entity = regionMapper.apply(row);
         return entity;
     }
 
@@ -110,7 +112,9 @@ class RegionRepositoryInternalImpl implements RegionRepositoryInternal {
                 .map(
                     numberOfUpdates -> {
                         if (numberOfUpdates.intValue() <= 0) {
-                            throw new IllegalStateException("Unable to update Region with id = " + entity.getId());
+                            throw new OptimisticLockingFailureException(
+                                "Unable to update Region with id = " + entity.getId() + " and version = " + entity.getVersion()
+                            );
                         }
                         return entity;
                     }
@@ -118,10 +122,29 @@ class RegionRepositoryInternalImpl implements RegionRepositoryInternal {
         }
     }
 
+    @Override
+    public Mono<Region> updateNonNullFields(Region entity) {
+        return entityManager.updateNonNullColumns(entity, regionMapper);
+    }
+
     @Override
     public Mono<Integer> update(Region entity) {
-        //fixme is this the proper way?
-        return r2dbcEntityTemplate.update(entity).thenReturn(1);
+        Long version = entity.getVersion();
+        if (version == null) {
+            return Mono.just(0);
+        }
+        // a single statement, which only matches the version the entity was read at, so a concurrent update isn't overwritten
+        return r2dbcEntityTemplate
+            .update(Region.class)
+            .matching(query(where("id").is(entity.getId()).and("version").is(version)))
+            .apply(Update.update("regionName", entity.getRegionName()).set("version", version + 1))
+            .doOnNext(
+                numberOfUpdates -> {
+                    if (numberOfUpdates > 0) {
+                        entity.setVersion(version + 1);
+                    }
+                }
+            );
     }
 }
 
@@ -131,6 +154,7 @@ class RegionSqlHelper {
         List<Expression> columns = new ArrayList<>();
         columns.add(Column.aliased("id", table, columnPrefix + "_id"));
         columns.add(Column.aliased("region_name", table, columnPrefix + "_region_name"));
+        columns.add(Column.aliased("version", table, columnPrefix + "_version"));
 
         return columns;
     }
@@ -5,20 +5,30 @@ import static org.springframework.data.relational.core.query.Query.query;
 
 import com.github.ghrocs.domain.Authority;
 import com.github.ghrocs.domain.User;
+import com.github.ghrocs.repository.rowmapper.UserRowMapper;
+import com.github.ghrocs.service.EntityManager;
+import com.github.ghrocs.service.Keyset;
+import io.r2dbc.spi.Row;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
-import org.apache.commons.beanutils.BeanComparator;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
-import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.relational.core.query.Criteria;
 import org.springframework.data.relational.core.sql.Column;
 import org.springframework.data.relational.core.sql.Expression;
+import org.springframework.data.relational.core.sql.Select;
+import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoin;
+import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoinCondition;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.stereotype.Repository;
@@ -38,7 +48,19 @@ public interface UserRepository extends R2dbcRepository<User, Long>, UserReposit
 
     Mono<User> findOneByResetKey(String resetKey);
 
-    Mono<User> findOneByEmailIgnoreCase(String email);
+    /**
+     * Finds a user by the email, which {@code UserService} stores in lower case.
+     * <p>
+     * The email is compared as is, so the lookup uses the unique index on the email, rather than {@code UPPER(email)} on each row.
+     *
+     * @param email the email in any case.
+     * @return the user, or empty if the email is null or not used.
+     */
+    default Mono<User> findOneByEmailIgnoreCase(String email) {
+        return email == null ? Mono.empty() : findOneByEmail(email.toLowerCase());
+    }
+
+    Mono<User> findOneByEmail(String email);
 
     Mono<User> findOneByLogin(String login);
 
@@ -68,18 +90,53 @@ interface UserRepositoryInternal extends DeleteExtended<User> {
     Mono<User> findOneWithAuthoritiesByEmailIgnoreCase(String email);
 
     Flux<User> findAllWithAuthorities(Pageable pageable);
+
+    Flux<User> findAllWithAuthorities(Keyset keyset);
+
+    Flux<User> streamAllWithAuthorities();
+
+    Flux<User> findAllActivatedBy(Keyset keyset);
+
+    Mono<Void> updateUserAuthorities(Long userId, Collection<String> authorities);
+
+    Mono<Integer> deleteNotActivatedCreatedBefore(LocalDateTime dateTime, int limit);
 }
 
 class UserRepositoryInternalImpl implements UserRepositoryInternal {
 
     private final DatabaseClient db;
     private final R2dbcEntityTemplate r2dbcEntityTemplate;
-    private final R2dbcConverter r2dbcConverter;
+    private final EntityManager entityManager;
+    private final Function<Row, User> userMapper;
+
+    private static final Table entityTable = Table.aliased("jhi_user", EntityManager.ENTITY_ALIAS);
+
+    private static final Table userAuthorityTable = Table.aliased("jhi_user_authority", "ua");
+
+    private static final String SELECT_NAME = "user";
+
+    private static final String SELECT_WITH_AUTHORITIES_NAME = "userWithAuthorities";
+
+    private static final String NOT_ACTIVATED_IDS =
+        "SELECT id FROM jhi_user WHERE activated = false AND activation_key IS NOT NULL AND created_date < :dateTime " +
+        "ORDER BY id LIMIT :limit FOR UPDATE";
+
+    private static final EntityManager.LinkTable userAuthorityLink = new EntityManager.LinkTable(
+        "jhi_user_authority",
+        "user_id",
+        "authority_name"
+    );
 
-    public UserRepositoryInternalImpl(DatabaseClient db, R2dbcEntityTemplate r2dbcEntityTemplate, R2dbcConverter r2dbcConverter) {
+    public UserRepositoryInternalImpl(
+        DatabaseClient db,
+        R2dbcEntityTemplate r2dbcEntityTemplate,
+        EntityManager entityManager,
+        UserRowMapper userMapper
+    ) {
         this.db = db;
         this.r2dbcEntityTemplate = r2dbcEntityTemplate;
-        this.r2dbcConverter = r2dbcConverter;
+        this.entityManager = entityManager;
+        this.userMapper = userMapper.withPrefix(EntityManager.ENTITY_ALIAS);
     }
 
     @Override
@@ -94,27 +151,107 @@ class UserRepositoryInternalImpl implements UserRepositoryInternal {
 
     @Override
     public Flux<User> findAllWithAuthorities(Pageable pageable) {
-        String property = pageable.getSort().stream().map(Sort.Order::getProperty).findFirst().get();
-        String direction = String.valueOf(pageable.getSort().stream().map(Sort.Order::getDirection).findFirst().get());
-        long page = pageable.getPageNumber();
-        long size = pageable.getPageSize();
+        // LIMIT/OFFSET is only deterministic on a total order, so fall back to the primary key when no sort is given
+        Pageable sortedPageable = pageable.getSort().isSorted()
+            ? pageable
+            : PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("id"));
+        return withAuthorities(
+            db.sql(entityManager.createSelect(SELECT_NAME, UserRepositoryInternalImpl::createSelectFrom, User.class, sortedPageable, null))
+        );
+    }
 
+    @Override
+    public Flux<User> findAllWithAuthorities(Keyset keyset) {
+        return withAuthorities(
+            db.sql(entityManager.createSelect(SELECT_NAME, UserRepositoryInternalImpl::createSelectFrom, User.class, keyset, null))
+        );
+    }
+
+    @Override
+    public Flux<User> streamAllWithAuthorities() {
+        // a single query ordered by user, so the rows of a user are consecutive and every user is emitted as soon as it's complete
         return db
-            .sql("SELECT * FROM jhi_user u LEFT JOIN jhi_user_authority ua ON u.id=ua.user_id")
+            .sql(
+                entityManager.createSelect(
+                    SELECT_WITH_AUTHORITIES_NAME,
+                    UserRepositoryInternalImpl::createSelectWithAuthoritiesFrom,
+                    User.class,
+                    Sort.by("id"),
+                    null
+                )
+            )
             .map(
                 (row, metadata) ->
-                    Tuples.of(r2dbcConverter.read(User.class, row, metadata), Optional.ofNullable(row.get("authority_name", String.class)))
+                    Tuples.of(
+                        userMapper.apply(row),
+                        Optional.ofNullable(row.get("ua_authority_name", String.class))
+                    )
             )
             .all()
-            .groupBy(t -> t.getT1().getLogin())
-            .flatMap(l -> l.collectList().map(t -> updateUserWithAuthorities(t.get(0).getT1(), t)))
-            .sort(
-                Sort.Direction.fromString(direction) == Sort.DEFAULT_DIRECTION
-                    ? new BeanComparator<>(property)
-                    : new BeanComparator<>(property).reversed()
-            )
-            .skip(page * size)
-            .take(size);
+            .bufferUntilChanged(t -> t.getT1().getId())
+            .map(l -> updateUserWithAuthorities(l.get(0).getT1(), l));
+    }
+
+    @Override
+    public Flux<User> findAllActivatedBy(Keyset keyset) {
+        Criteria activated = Criteria.where("activated").isTrue();
+        return db
+            .sql(entityManager.createSelect(SELECT_NAME, UserRepositoryInternalImpl::createSelectFrom, User.class, keyset, activated))
+            .map((row, metadata) -> userMapper.apply(row))
+            .all();
+    }
+
+    @Override
+    public Mono<Void> updateUserAuthorities(Long userId, Collection<String> authorities) {
+        return entityManager.updateLinkTable(userAuthorityLink, userId, authorities.stream()).then();
+    }
+
+    @Override
+    public Mono<Integer> deleteNotActivatedCreatedBefore(LocalDateTime dateTime, int limit) {
+        // the ids are selected, and locked, once: selecting them again in each statement could read other users under read committed
+        return db
+            .sql(NOT_ACTIVATED_IDS)
+            .bind("dateTime", dateTime)
+            .bind("limit", limit)
+            .map(row -> row.get("id", Long.class))
+            .all()
+            .collectList()
+            .flatMap(
+                ids ->
+                    ids.isEmpty()
+                        ? Mono.just(0)
+                        : db
+                            .sql("DELETE FROM jhi_user_authority WHERE user_id IN (:ids)")
+                            .bind("ids", ids)
+                            .then()
+                            .then(db.sql("DELETE FROM jhi_user WHERE id IN (:ids)").bind("ids", ids).fetch().rowsUpdated())
+            );
+    }
+
+    private static SelectFromAndJoin createSelectFrom() {
+        List<Expression> columns = UserSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
+        return Select.builder().select(columns).from(entityTable);
+    }
+
+    private static SelectFromAndJoinCondition createSelectWithAuthoritiesFrom() {
+        List<Expression> columns = UserSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
+        columns.add(Column.aliased("authority_name", userAuthorityTable, "ua_authority_name"));
+        return Select
+            .builder()
+            .select(columns)
+            .from(entityTable)
+            .leftOuterJoin(userAuthorityTable)
+            .on(Column.create("id", entityTable))
+            .equals(Column.create("user_id", userAuthorityTable));
+    }
+
+    private Flux<User> withAuthorities(DatabaseClient.GenericExecuteSpec select) {
+        // first fetch only the requested page of users, then the authorities of exactly those users
+        return select
+            .map((row, metadata) -> userMapper.apply(row))
+            .all()
+            .collectList()
+            .flatMapMany(users -> fetchAuthorities(users).thenMany(Flux.fromIterable(users)));
     }
 
     @Override
@@ -128,11 +265,21 @@ class UserRepositoryInternalImpl implements UserRepositoryInternal {
 
     private Mono<User> findOneWithAuthoritiesBy(String fieldName, Object fieldValue) {
         return db
-            .sql("SELECT * FROM jhi_user u LEFT JOIN jhi_user_authority ua ON u.id=ua.user_id WHERE u." + fieldName + " = :" + fieldName)
-            .bind(fieldName, fieldValue)
+            .sql(
+                entityManager.createSelect(
+                    SELECT_WITH_AUTHORITIES_NAME,
+                    UserRepositoryInternalImpl::createSelectWithAuthoritiesFrom,
+                    User.class,
+                    Sort.unsorted(),
+                    Criteria.where(fieldName).is(fieldValue)
+                )
+            )
             .map(
                 (row, metadata) ->
-                    Tuples.of(r2dbcConverter.read(User.class, row, metadata), Optional.ofNullable(row.get("authority_name", String.class)))
+                    Tuples.of(
+                        userMapper.apply(row),
+                        Optional.ofNullable(row.get("ua_authority_name", String.class))
+                    )
             )
             .all()
             .collectList()
@@ -140,6 +287,26 @@ class UserRepositoryInternalImpl implements UserRepositoryInternal {
             .map(l -> updateUserWithAuthorities(l.get(0).getT1(), l));
     }
 
+    private Mono<Void> fetchAuthorities(List<User> users) {
+        if (users.isEmpty()) {
+            return Mono.empty();
+        }
+        Map<Long, User> usersById = users.stream().collect(Collectors.toMap(User::getId, Function.identity()));
+        return db
+            .sql("SELECT user_id, authority_name FROM jhi_user_authority WHERE user_id IN (:userIds)")
+            .bind("userIds", usersById.keySet())
+            .map((row, metadata) -> Tuples.of(row.get("user_id", Long.class), row.get("authority_name", String.class)))
+            .all()
+            .doOnNext(
+                t -> {
+                    Authority authority = new Authority();
+                    authority.setName(t.getT2());
+                    usersById.get(t.getT1()).getAuthorities().add(authority);
+                }
+            )
+            .then();
+    }
+
     private User updateUserWithAuthorities(User user, List<Tuple2<User, Optional<String>>> tuples) {
         user.setAuthorities(
             tuples
@@ -175,6 +342,10 @@ class UserSqlHelper {
         columns.add(Column.aliased("activation_key", table, columnPrefix + "_activation_key"));
         columns.add(Column.aliased("reset_key", table, columnPrefix + "_reset_key"));
         columns.add(Column.aliased("reset_date", table, columnPrefix + "_reset_date"));
+        columns.add(Column.aliased("created_by", table, columnPrefix + "_created_by"));
+        columns.add(Column.aliased("created_date", table, columnPrefix + "_created_date"));
+        columns.add(Column.aliased("last_modified_by", table, columnPrefix + "_last_modified_by"));
+        columns.add(Column.aliased("last_modified_date", table, columnPrefix + "_last_modified_date"));
         return columns;
     }
 }
@@ -4,7 +4,10 @@ import com.github.ghrocs.domain.Country;
 import com.github.ghrocs.domain.enumeration.Language;
 import com.github.ghrocs.service.ColumnConverter;
 import io.r2dbc.spi.Row;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
+import java.util.function.Function;
 import org.springframework.stereotype.Service;
 
 /**
@@ -15,6 +18,8 @@ public class CountryRowMapper implements BiFunction<Row, String, Country> {
 
     private final ColumnConverter converter;
 
+    private final Map<String, Columns> columnsByPrefix = new ConcurrentHashMap<>();
+
     public CountryRowMapper(ColumnConverter converter) {
         this.converter = converter;
     }
@@ -25,11 +30,43 @@ public class CountryRowMapper implements BiFunction<Row, String, Country> {
      */
     @Override
     public Country apply(Row row, String prefix) {
+        return apply(row, columnsByPrefix.computeIfAbsent(prefix, Columns::new));
+    }
+
+    /**
+     * Binds the mapper to a column prefix, so the column names are built once rather than for every row.
+     * @param prefix the column prefix.
+     * @return the mapper extracting all the fields of a {@link Row}.
+     */
+    public Function<Row, Country> withPrefix(String prefix) {
+        Columns columns = new Columns(prefix);
+        return row -> apply(row, columns);
+    }
+
+    private Country apply(Row row, Columns columns) {
         Country entity = new Country();
-        entity.setId(converter.fromRow(row, prefix + "_id", Long.class));
-        entity.setCountryName(converter.fromRow(row, prefix + "_country_name", String.class));
-        entity.setLanguage(converter.fromRow(row, prefix + "_language", Language.class));
-        entity.setRegionId(converter.fromRow(row, prefix + "_region_id", Long.class));
+        entity.setId(converter.fromRow(row, columns.id, Long.class));
+        entity.setCountryName(converter.fromRow(row, columns.countryName, String.class));
+        entity.setLanguage(converter.fromRow(row, columns.language, Language.class));
+        entity.setRegionId(converter.fromRow(row, columns.regionId, Long.class));
+        entity.setVersion(converter.fromRow(row, columns.version, Long.class));
         return entity;
     }
+
+    private static final class Columns {
+
+        private final String id;
+        private final String countryName;
+        private final String language;
+        private final String regionId;
+        private final String version;
+
+        private Columns(String prefix) {
+            this.id = prefix + "_id";
+            this.countryName = prefix + "_country_name";
+            this.language = prefix + "_language";
+            this.regionId = prefix + "_region_id";
+            this.version = prefix + "_version";
+        }
+    }
 }
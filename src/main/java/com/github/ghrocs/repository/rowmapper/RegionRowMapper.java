@@ -3,7 +3,10 @@ package com.github.ghrocs.repository.rowmapper;
 import com.github.ghrocs.domain.Region;
 import com.github.ghrocs.service.ColumnConverter;
 import io.r2dbc.spi.Row;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
+import java.util.function.Function;
 import org.springframework.stereotype.Service;
 
 /**
@@ -14,6 +17,8 @@ public class RegionRowMapper implements BiFunction<Row, String, Region> {
 
     private final ColumnConverter converter;
 
+    private final Map<String, Columns> columnsByPrefix = new ConcurrentHashMap<>();
+
     public RegionRowMapper(ColumnConverter converter) {
         this.converter = converter;
     }
@@ -24,9 +29,37 @@ public class RegionRowMapper implements BiFunction<Row, String, Region> {
      */
     @Override
     public Region apply(Row row, String prefix) {
+        return apply(row, columnsByPrefix.computeIfAbsent(prefix, Columns::new));
+    }
+
+    /**
+     * Binds the mapper to a column prefix, so the column names are built once rather than for every row.
+     * @param prefix the column prefix.
+     * @return the mapper extracting all the fields of a {@link Row}.
+     */
+    public Function<Row, Region> withPrefix(String prefix) {
+        Columns columns = new Columns(prefix);
+        return row -> apply(row, columns);
+    }
+
+    private Region apply(Row row, Columns columns) {
         Region entity = new Region();
-        entity.setId(converter.fromRow(row, prefix + "_id", Long.class));
-        entity.setRegionName(converter.fromRow(row, prefix + "_region_name", String.class));
+        entity.setId(converter.fromRow(row, columns.id, Long.class));
+        entity.setRegionName(converter.fromRow(row, columns.regionName, String.class));
+        entity.setVersion(converter.fromRow(row, columns.version, Long.class));
         return entity;
     }
+
+    private static final class Columns {
+
+        private final String id;
+        private final String regionName;
+        private final String version;
+
+        private Columns(String prefix) {
+            this.id = prefix + "_id";
+            this.regionName = prefix + "_region_name";
+            this.version = prefix + "_version";
+        }
+    }
 }
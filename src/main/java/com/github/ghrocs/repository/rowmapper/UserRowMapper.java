@@ -4,7 +4,10 @@ import com.github.ghrocs.domain.User;
 import com.github.ghrocs.service.ColumnConverter;
 import io.r2dbc.spi.Row;
 import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
+import java.util.function.Function;
 import org.springframework.stereotype.Service;
 
 /**
@@ -15,6 +18,8 @@ public class UserRowMapper implements BiFunction<Row, String, User> {
 
     private final ColumnConverter converter;
 
+    private final Map<String, Columns> columnsByPrefix = new ConcurrentHashMap<>();
+
     public UserRowMapper(ColumnConverter converter) {
         this.converter = converter;
     }
@@ -25,19 +30,76 @@ public class UserRowMapper implements BiFunction<Row, String, User> {
      */
     @Override
     public User apply(Row row, String prefix) {
+        return apply(row, columnsByPrefix.computeIfAbsent(prefix, Columns::new));
+    }
+
+    /**
+     * Binds the mapper to a column prefix, so the column names are built once rather than for every row.
+     * @param prefix the column prefix.
+     * @return the mapper extracting all the fields of a {@link Row}.
+     */
+    public Function<Row, User> withPrefix(String prefix) {
+        Columns columns = new Columns(prefix);
+        return row -> apply(row, columns);
+    }
+
+    private User apply(Row row, Columns columns) {
         User entity = new User();
-        entity.setId(row.get(prefix + "_id", Long.class));
-        entity.setLogin(converter.fromRow(row, prefix + "_login", String.class));
-        entity.setPassword(converter.fromRow(row, prefix + "_password", String.class));
-        entity.setFirstName(converter.fromRow(row, prefix + "_first_name", String.class));
-        entity.setLastName(converter.fromRow(row, prefix + "_last_name", String.class));
-        entity.setEmail(converter.fromRow(row, prefix + "_email", String.class));
-        entity.setActivated(Boolean.TRUE.equals(converter.fromRow(row, prefix + "_activated", Boolean.class)));
-        entity.setLangKey(converter.fromRow(row, prefix + "_lang_key", String.class));
-        entity.setImageUrl(converter.fromRow(row, prefix + "_image_url", String.class));
-        entity.setActivationKey(converter.fromRow(row, prefix + "_activation_key", String.class));
-        entity.setResetKey(converter.fromRow(row, prefix + "_reset_key", String.class));
-        entity.setResetDate(converter.fromRow(row, prefix + "_reset_date", Instant.class));
+        entity.setId(row.get(columns.id, Long.class));
+        entity.setLogin(converter.fromRow(row, columns.login, String.class));
+        entity.setPassword(converter.fromRow(row, columns.password, String.class));
+        entity.setFirstName(converter.fromRow(row, columns.firstName, String.class));
+        entity.setLastName(converter.fromRow(row, columns.lastName, String.class));
+        entity.setEmail(converter.fromRow(row, columns.email, String.class));
+        entity.setActivated(Boolean.TRUE.equals(converter.fromRow(row, columns.activated, Boolean.class)));
+        entity.setLangKey(converter.fromRow(row, columns.langKey, String.class));
+        entity.setImageUrl(converter.fromRow(row, columns.imageUrl, String.class));
+        entity.setActivationKey(converter.fromRow(row, columns.activationKey, String.class));
+        entity.setResetKey(converter.fromRow(row, columns.resetKey, String.class));
+        entity.setResetDate(converter.fromRow(row, columns.resetDate, Instant.class));
+        entity.setCreatedBy(converter.fromRow(row, columns.createdBy, String.class));
+        entity.setCreatedDate(converter.fromRow(row, columns.createdDate, Instant.class));
+        entity.setLastModifiedBy(converter.fromRow(row, columns.lastModifiedBy, String.class));
+        entity.setLastModifiedDate(converter.fromRow(row, columns.lastModifiedDate, Instant.class));
         return entity;
     }
+
+    private static final class Columns {
+
+        private final String id;
+        private final String login;
+        private final String password;
+        private final String firstName;
+        private final String lastName;
+        private final String email;
+        private final String activated;
+        private final String langKey;
+        private final String imageUrl;
+        private final String activationKey;
+        private final String resetKey;
+        private final String resetDate;
+        private final String createdBy;
+        private final String createdDate;
+        private final String lastModifiedBy;
+        private final String lastModifiedDate;
+
+        private Columns(String prefix) {
+            this.id = prefix + "_id";
+            this.login = prefix + "_login";
+            this.password = prefix + "_password";
+            this.firstName = prefix + "_first_name";
+            this.lastName = prefix + "_last_name";
+            this.email = prefix + "_email";
+            this.activated = prefix + "_activated";
+            this.langKey = prefix + "_lang_key";
+            this.imageUrl = prefix + "_image_url";
+            this.activationKey = prefix + "_activation_key";
+            this.resetKey = prefix + "_reset_key";
+            this.resetDate = prefix + "_reset_date";
+            this.createdBy = prefix + "_created_by";
+            this.createdDate = prefix + "_created_date";
+            this.lastModifiedBy = prefix + "_last_modified_by";
+            this.lastModifiedDate = prefix + "_last_modified_date";
+        }
+    }
 }
@@ -0,0 +1,92 @@
+package com.github.ghrocs.security;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * BCrypt password encoder, whose strength is configured for the whole cluster.
+ * <p>
+ * A hash of a lower strength has to be upgraded: it's encoded again with the configured strength once the user authenticates, so
+ * raising the strength doesn't require a migration. A hash of a higher strength is kept, so the instances still configured with the
+ * previous strength, while the strength is raised, don't rewrite the hashes of the others.
+ * <p>
+ * The strength fitting a target latency on the current CPU is only calibrated as a hint, logged at startup: a strength calibrated on
+ * each instance would differ from one instance to the other.
+ */
+public class AdaptiveBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+    /**
+     * The lowest strength picked by the calibration, which is the default strength of BCrypt. A lower one can only be configured.
+     */
+    public static final int MIN_CALIBRATED_STRENGTH = 10;
+
+    private static final int MAX_STRENGTH = 31;
+
+    private static final int CALIBRATION_ROUNDS = 3;
+
+    private static final Pattern BCRYPT_PATTERN = Pattern.compile("\\A\\$2(a|y|b)?\\$(\\d\\d)\\$");
+
+    private static final Logger log = LoggerFactory.getLogger(AdaptiveBCryptPasswordEncoder.class);
+
+    private final int strength;
+
+    public AdaptiveBCryptPasswordEncoder(int strength) {
+        super(strength);
+        this.strength = strength;
+    }
+
+    /**
+     * Calibrates the highest strength, whose hash takes at most the target latency on the current CPU, and logs it next to the
+     * configured strength.
+     *
+     * @param targetLatency the target latency of a hash.
+     * @param strength the configured strength.
+     * @return the calibrated strength.
+     */
+    public static int calibrate(Duration targetLatency, int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(MIN_CALIBRATED_STRENGTH);
+        // the first hash warms up the JIT
+        encoder.encode("calibration");
+        long[] latencies = new long[CALIBRATION_ROUNDS];
+        for (int i = 0; i < CALIBRATION_ROUNDS; i++) {
+            long start = System.nanoTime();
+            encoder.encode("calibration");
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+        long latency = latencies[CALIBRATION_ROUNDS / 2];
+
+        // every increment of the strength doubles the latency
+        int calibratedStrength = MIN_CALIBRATED_STRENGTH;
+        while (calibratedStrength < MAX_STRENGTH && latency * 2 <= targetLatency.toNanos()) {
+            calibratedStrength++;
+            latency *= 2;
+        }
+        log.info(
+            "The BCrypt strength is {}, the strength calibrated on this CPU is {}: a hash takes about {} ms, for a target of {} ms",
+            strength,
+            calibratedStrength,
+            latency / 1_000_000,
+            targetLatency.toMillis()
+        );
+        return calibratedStrength;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.isEmpty()) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_PATTERN.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(2)) < strength;
+    }
+}
@@ -24,10 +24,15 @@ public class DomainUserDetailsService implements ReactiveUserDetailsService {
 
     private final Logger log = LoggerFactory.getLogger(DomainUserDetailsService.class);
 
+    private static final EmailValidator emailValidator = new EmailValidator();
+
     private final UserRepository userRepository;
 
-    public DomainUserDetailsService(UserRepository userRepository) {
+    private final UserDetailsCache userDetailsCache;
+
+    public DomainUserDetailsService(UserRepository userRepository, UserDetailsCache userDetailsCache) {
         this.userRepository = userRepository;
+        this.userDetailsCache = userDetailsCache;
     }
 
     @Override
@@ -35,29 +40,44 @@ public class DomainUserDetailsService implements ReactiveUserDetailsService {
     public Mono<UserDetails> findByUsername(final String login) {
         log.debug("Authenticating {}", login);
 
-        if (new EmailValidator().isValid(login, null)) {
-            return userRepository
-                .findOneWithAuthoritiesByEmailIgnoreCase(login)
+        if (emailValidator.isValid(login, null)) {
+            return userDetailsCache
+                .getByEmail(
+                    login.toLowerCase(Locale.ENGLISH),
+                    email -> userRepository.findOneWithAuthoritiesByEmailIgnoreCase(email).map(this::createUserDetails)
+                )
                 .switchIfEmpty(Mono.error(new UsernameNotFoundException("User with email " + login + " was not found in the database")))
-                .map(user -> createSpringSecurityUser(login, user));
+                .map(userDetails -> createSpringSecurityUser(login, userDetails));
         }
 
         String lowercaseLogin = login.toLowerCase(Locale.ENGLISH);
-        return userRepository
-            .findOneWithAuthoritiesByLogin(lowercaseLogin)
+        return userDetailsCache
+            .getByLogin(lowercaseLogin, key -> userRepository.findOneWithAuthoritiesByLogin(key).map(this::createUserDetails))
             .switchIfEmpty(Mono.error(new UsernameNotFoundException("User " + lowercaseLogin + " was not found in the database")))
-            .map(user -> createSpringSecurityUser(lowercaseLogin, user));
+            .map(userDetails -> createSpringSecurityUser(lowercaseLogin, userDetails));
     }
 
-    private org.springframework.security.core.userdetails.User createSpringSecurityUser(String lowercaseLogin, User user) {
-        if (!user.isActivated()) {
-            throw new UserNotActivatedException("User " + lowercaseLogin + " was not activated");
-        }
+    private UserDetails createUserDetails(User user) {
         List<GrantedAuthority> grantedAuthorities = user
             .getAuthorities()
             .stream()
             .map(authority -> new SimpleGrantedAuthority(authority.getName()))
             .collect(Collectors.toList());
-        return new org.springframework.security.core.userdetails.User(user.getLogin(), user.getPassword(), grantedAuthorities);
+        return org.springframework.security.core.userdetails.User
+            .withUsername(user.getLogin())
+            .password(user.getPassword())
+            .authorities(grantedAuthorities)
+            .disabled(!user.isActivated())
+            .build();
+    }
+
+    /**
+     * Copies the cached user, whose credentials could otherwise be erased once authenticated.
+     */
+    private UserDetails createSpringSecurityUser(String lowercaseLogin, UserDetails userDetails) {
+        if (!userDetails.isEnabled()) {
+            throw new UserNotActivatedException("User " + lowercaseLogin + " was not activated");
+        }
+        return org.springframework.security.core.userdetails.User.withUserDetails(userDetails).build();
     }
 }
@@ -0,0 +1,104 @@
+package com.github.ghrocs.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.ghrocs.config.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Limits the login attempts, before their password is checked.
+ * <p>
+ * Every client IP address and every login has its own token bucket, configured by {@code application.login-rate-limit}. The bucket of
+ * a login is refilled once it's authenticated, so only its failed attempts are limited. The buckets are lock-free: the state of a bucket
+ * is the time at which it will be full again, updated with a compare-and-set. A rejected attempt is counted by the
+ * {@code login.attempts.rejected} metric, tagged with the limit, {@code ip} or {@code login}.
+ */
+@Component
+public class LoginRateLimiter {
+
+    public static final String REJECTED_COUNTER = "login.attempts.rejected";
+
+    private final Logger log = LoggerFactory.getLogger(LoginRateLimiter.class);
+
+    private final Limit perLogin;
+
+    private final Limit perIp;
+
+    public LoginRateLimiter(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        ApplicationProperties.LoginRateLimit properties = applicationProperties.getLoginRateLimit();
+        long maximumSize = properties.getMaximumSize();
+        this.perLogin = new Limit(properties.getPerLogin(), maximumSize, meterRegistry.counter(REJECTED_COUNTER, "limit", "login"));
+        this.perIp = new Limit(properties.getPerIp(), maximumSize, meterRegistry.counter(REJECTED_COUNTER, "limit", "ip"));
+    }
+
+    /**
+     * Takes an attempt of the client IP address, then of the login.
+     *
+     * @param login the login or email.
+     * @param ip the client IP address, or null if it's unknown.
+     * @throws TooManyLoginAttemptsException if there are no attempts left.
+     */
+    public void acquire(String login, String ip) {
+        if (ip != null) {
+            perIp.acquire(ip);
+        }
+        if (login != null) {
+            perLogin.acquire(login.toLowerCase(Locale.ENGLISH));
+        }
+    }
+
+    /**
+     * Gives back all the attempts of an authenticated login.
+     *
+     * @param login the login or email.
+     */
+    public void reset(String login) {
+        if (login != null) {
+            perLogin.buckets.invalidate(login.toLowerCase(Locale.ENGLISH));
+        }
+    }
+
+    private final class Limit {
+
+        private final long refillPeriodNanos;
+
+        private final long burstNanos;
+
+        private final Cache<String, AtomicLong> buckets;
+
+        private final Counter rejected;
+
+        private Limit(ApplicationProperties.LoginRateLimit.Bucket bucket, long maximumSize, Counter rejected) {
+            this.refillPeriodNanos = bucket.getRefillPeriod().toNanos();
+            this.burstNanos = refillPeriodNanos * bucket.getCapacity();
+            // a bucket untouched for a whole burst is full again, it doesn't need to be kept
+            this.buckets = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterAccess(Duration.ofNanos(burstNanos)).build();
+            this.rejected = rejected;
+        }
+
+        private void acquire(String key) {
+            long now = System.nanoTime();
+            AtomicLong fullAt = buckets.get(key, k -> new AtomicLong(now));
+            while (true) {
+                long current = fullAt.get();
+                long next = Math.max(current, now) + refillPeriodNanos;
+                long wait = next - now - burstNanos;
+                if (wait > 0) {
+                    rejected.increment();
+                    log.debug("Too many login attempts of {}", key);
+                    throw new TooManyLoginAttemptsException(Duration.ofNanos(wait));
+                }
+                if (fullAt.compareAndSet(current, next)) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.github.ghrocs.security;
+
+import com.github.ghrocs.config.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Scheduler of the password hashes and checks, which are too slow to run on the event loops.
+ * <p>
+ * It runs on {@code application.password-hashing.pool-size} threads, with at most {@code application.password-hashing.queue-capacity}
+ * waiting passwords: the next ones fail with a {@link java.util.concurrent.RejectedExecutionException}, translated into 503 (Service
+ * Unavailable). The queue depth and the hash latency are published as the {@code executor.queued} gauge and the {@code executor} timer,
+ * tagged with {@code name=passwordHashing}.
+ */
+@Component
+public class PasswordHashingScheduler implements DisposableBean {
+
+    public static final String NAME = "passwordHashing";
+
+    private final ThreadPoolExecutor executor;
+
+    private final Scheduler scheduler;
+
+    public PasswordHashingScheduler(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        ApplicationProperties.PasswordHashing properties = applicationProperties.getPasswordHashing();
+        this.executor =
+            new ThreadPoolExecutor(
+                properties.getPoolSize(),
+                properties.getPoolSize(),
+                0,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                new CustomizableThreadFactory("password-hashing-")
+            );
+        this.scheduler = Schedulers.fromExecutorService(ExecutorServiceMetrics.monitor(meterRegistry, executor, NAME), NAME);
+    }
+
+    /**
+     * @return the scheduler to hash or check a password on.
+     */
+    public Scheduler get() {
+        return scheduler;
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.dispose();
+        executor.shutdown();
+    }
+}
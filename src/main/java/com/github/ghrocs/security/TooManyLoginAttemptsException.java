@@ -0,0 +1,25 @@
+package com.github.ghrocs.security;
+
+import java.time.Duration;
+
+/**
+ * This exception is thrown when a login attempt is rejected by the {@link LoginRateLimiter}, before its password is checked.
+ */
+public class TooManyLoginAttemptsException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Duration retryAfter;
+
+    public TooManyLoginAttemptsException(Duration retryAfter) {
+        super("Too many login attempts");
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * @return the time after which an attempt is accepted again.
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
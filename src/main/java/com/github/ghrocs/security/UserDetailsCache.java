@@ -0,0 +1,67 @@
+package com.github.ghrocs.security;
+
+import com.github.ghrocs.config.ApplicationProperties;
+import com.github.ghrocs.service.ReactiveCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.function.Function;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Cache of the users read to authenticate: their login, password hash, authorities and whether they are activated.
+ * <p>
+ * The users are cached by login and by email, for at most {@code application.cache.user-details.time-to-live}. A write of a user evicts
+ * its login, and all the emails, since the previous email of the user isn't known anymore once it's changed. The hits, misses and size
+ * evictions are published as the {@code cache.gets} and {@code cache.evictions} metrics, tagged with {@code userDetails.login} and
+ * {@code userDetails.email}.
+ */
+@Component
+public class UserDetailsCache {
+
+    public static final String LOGIN_CACHE = "userDetails.login";
+
+    public static final String EMAIL_CACHE = "userDetails.email";
+
+    private final ReactiveCache<String, UserDetails> byLogin;
+
+    private final ReactiveCache<String, UserDetails> byEmail;
+
+    public UserDetailsCache(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        ApplicationProperties.Cache.UserDetails cacheProperties = applicationProperties.getCache().getUserDetails();
+        this.byLogin = new ReactiveCache<>(LOGIN_CACHE, cacheProperties.getMaximumSize(), cacheProperties.getTimeToLive(), meterRegistry);
+        this.byEmail = new ReactiveCache<>(EMAIL_CACHE, cacheProperties.getMaximumSize(), cacheProperties.getTimeToLive(), meterRegistry);
+    }
+
+    /**
+     * Returns the cached user of the login, or loads it.
+     *
+     * @param login the lowercase login.
+     * @param loader loads the user of the login.
+     * @return the user, or an empty {@link Mono} if there's none.
+     */
+    public Mono<UserDetails> getByLogin(String login, Function<String, Mono<UserDetails>> loader) {
+        return byLogin.get(login, loader);
+    }
+
+    /**
+     * Returns the cached user of the email, or loads it.
+     *
+     * @param email the lowercase email.
+     * @param loader loads the user of the email.
+     * @return the user, or an empty {@link Mono} if there's none.
+     */
+    public Mono<UserDetails> getByEmail(String email, Function<String, Mono<UserDetails>> loader) {
+        return byEmail.get(email, loader);
+    }
+
+    /**
+     * Evicts the user of the login, and again when the current transaction completes.
+     *
+     * @param login the login of the user, which was written or deleted.
+     * @return a {@link Mono} completing once the user is evicted.
+     */
+    public Mono<Void> evict(String login) {
+        return byLogin.invalidate(login).then(byEmail.invalidateAll());
+    }
+}
@@ -1,12 +1,23 @@
 package com.github.ghrocs.security.jwt;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.ghrocs.config.ApplicationProperties;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.jackson.io.JacksonSerializer;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,6 +37,10 @@ public class TokenProvider {
 
     private static final String AUTHORITIES_KEY = "auth";
 
+    public static final String AUTHENTICATION_CACHE = "jwt.authentications";
+
+    public static final String VERIFICATION_TIMER = "jwt.verifications";
+
     private final Key key;
 
     private final JwtParser jwtParser;
@@ -34,7 +49,15 @@ public class TokenProvider {
 
     private final long tokenValidityInMillisecondsForRememberMe;
 
-    public TokenProvider(JHipsterProperties jHipsterProperties) {
+    private final Cache<ByteBuffer, VerifiedToken> authentications;
+
+    private final Timer validTokenVerifications;
+
+    private final Timer invalidTokenVerifications;
+
+    private final MeterRegistry meterRegistry;
+
+    public TokenProvider(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
         byte[] keyBytes;
         String secret = jHipsterProperties.getSecurity().getAuthentication().getJwt().getSecret();
         if (!ObjectUtils.isEmpty(secret)) {
@@ -52,6 +75,17 @@ public class TokenProvider {
         this.tokenValidityInMilliseconds = 1000 * jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSeconds();
         this.tokenValidityInMillisecondsForRememberMe =
             1000 * jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSecondsForRememberMe();
+        this.authentications =
+            Caffeine
+                .newBuilder()
+                .maximumSize(applicationProperties.getCache().getTokens().getMaximumSize())
+                .expireAfter(new UntilExpiration())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, authentications, AUTHENTICATION_CACHE);
+        this.validTokenVerifications = meterRegistry.timer(VERIFICATION_TIMER, "result", "valid");
+        this.invalidTokenVerifications = meterRegistry.timer(VERIFICATION_TIMER, "result", "invalid");
+        this.meterRegistry = meterRegistry;
     }
 
     public String createToken(Authentication authentication, boolean rememberMe) {
@@ -75,28 +109,92 @@ public class TokenProvider {
             .compact();
     }
 
-    public Authentication getAuthentication(String token) {
-        Claims claims = jwtParser.parseClaimsJws(token).getBody();
-
-        Collection<? extends GrantedAuthority> authorities = Arrays
-            .stream(claims.get(AUTHORITIES_KEY).toString().split(","))
-            .filter(auth -> !auth.trim().isEmpty())
-            .map(SimpleGrantedAuthority::new)
-            .collect(Collectors.toList());
-
-        User principal = new User(claims.getSubject(), "", authorities);
-
-        return new UsernamePasswordAuthenticationToken(principal, token, authorities);
+    /**
+     * Returns the authentication of the token if it's valid. A token is verified once, its claims are then cached until it expires,
+     * by the SHA-256 digest of the token so the cache doesn't keep the tokens themselves.
+     * <p>
+     * A new authentication is created for each call, the {@link Authentication} being mutable.
+     *
+     * @param token the token.
+     * @return the authentication, or an empty {@link Optional} if the token isn't valid.
+     */
+    public Optional<Authentication> getValidAuthentication(String token) {
+        VerifiedToken verifiedToken = authentications.get(digest(token), digest -> verify(token));
+        if (verifiedToken == null) {
+            return Optional.empty();
+        }
+        User principal = new User(verifiedToken.subject, "", verifiedToken.authorities);
+        return Optional.of(new UsernamePasswordAuthenticationToken(principal, token, verifiedToken.authorities));
     }
 
-    public boolean validateToken(String authToken) {
+    private VerifiedToken verify(String token) {
+        Timer.Sample sample = Timer.start(meterRegistry);
         try {
-            jwtParser.parseClaimsJws(authToken);
-            return true;
+            Claims claims = jwtParser.parseClaimsJws(token).getBody();
+            List<GrantedAuthority> authorities = Arrays
+                .stream(claims.get(AUTHORITIES_KEY).toString().split(","))
+                .filter(auth -> !auth.trim().isEmpty())
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toUnmodifiableList());
+            VerifiedToken verifiedToken = new VerifiedToken(claims.getSubject(), authorities, claims.getExpiration());
+            sample.stop(validTokenVerifications);
+            return verifiedToken;
         } catch (JwtException | IllegalArgumentException e) {
+            sample.stop(invalidTokenVerifications);
             log.info("Invalid JWT token.");
             log.trace("Invalid JWT token trace.", e);
+            return null;
+        }
+    }
+
+    private static ByteBuffer digest(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform implements SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The immutable claims of a verified token.
+     */
+    private static final class VerifiedToken {
+
+        private final String subject;
+
+        private final List<GrantedAuthority> authorities;
+
+        private final Date expiration;
+
+        private VerifiedToken(String subject, List<GrantedAuthority> authorities, Date expiration) {
+            this.subject = subject;
+            this.authorities = authorities;
+            this.expiration = expiration;
+        }
+    }
+
+    /**
+     * Expires a verified token when the token itself expires, a token without expiration isn't kept.
+     */
+    private static final class UntilExpiration implements Expiry<ByteBuffer, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(ByteBuffer digest, VerifiedToken verifiedToken, long currentTime) {
+            if (verifiedToken.expiration == null) {
+                return 0;
+            }
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, verifiedToken.expiration.getTime() - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer digest, VerifiedToken verifiedToken, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer digest, VerifiedToken verifiedToken, long currentTime, long currentDuration) {
+            return currentDuration;
         }
-        return false;
     }
 }
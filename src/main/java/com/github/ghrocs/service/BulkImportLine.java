@@ -0,0 +1,48 @@
+package com.github.ghrocs.service;
+
+/**
+ * A line of a bulk import: the element read from it, or the reason why it couldn't be read.
+ *
+ * @param <T> the type of the imported elements.
+ */
+public final class BulkImportLine<T> {
+
+    private final long lineNumber;
+    private final T value;
+    private final String error;
+
+    private BulkImportLine(long lineNumber, T value, String error) {
+        this.lineNumber = lineNumber;
+        this.value = value;
+        this.error = error;
+    }
+
+    public static <T> BulkImportLine<T> of(long lineNumber, T value) {
+        return new BulkImportLine<>(lineNumber, value, null);
+    }
+
+    public static <T> BulkImportLine<T> invalid(long lineNumber, String error) {
+        return new BulkImportLine<>(lineNumber, null, error);
+    }
+
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    public T getValue() {
+        return value;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public boolean isValid() {
+        return error == null;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkImportLine{" + "lineNumber=" + lineNumber + ", value=" + value + ", error='" + error + "'" + "}";
+    }
+}
@@ -0,0 +1,134 @@
+package com.github.ghrocs.service;
+
+import com.github.ghrocs.config.ApplicationProperties;
+import com.github.ghrocs.service.dto.BulkImportResultDTO;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service writing the elements of a bulk import.
+ * <p>
+ * The lines are read in batches of {@code application.database.import-batch-size} elements, each batch is validated and inserted with a
+ * single statement in its own transaction before the next one is requested. Only one batch is held in memory at a time, whatever the size
+ * of the import. A batch, which can't be written, is rolled back and reported, the following batches are still imported.
+ */
+@Service
+public class BulkImporter {
+
+    private final Logger log = LoggerFactory.getLogger(BulkImporter.class);
+
+    private final EntityManager entityManager;
+
+    private final TransactionalOperator transactionalOperator;
+
+    private final Validator validator;
+
+    private final int batchSize;
+
+    public BulkImporter(
+        EntityManager entityManager,
+        TransactionalOperator transactionalOperator,
+        Validator validator,
+        ApplicationProperties applicationProperties
+    ) {
+        this.entityManager = entityManager;
+        this.transactionalOperator = transactionalOperator;
+        this.validator = validator;
+        this.batchSize = applicationProperties.getDatabase().getImportBatchSize();
+    }
+
+    /**
+     * Imports the given lines.
+     *
+     * @param lines the lines to import.
+     * @param idGetter returns the id of an element, which must be null.
+     * @param toEntity maps an element to the entity to insert.
+     * @param <T> the type of the imported elements.
+     * @param <E> the type of the entities.
+     * @return the result of every batch.
+     */
+    public <T, E> Flux<BulkImportResultDTO> importAll(Flux<BulkImportLine<T>> lines, Function<T, Long> idGetter, Function<T, E> toEntity) {
+        return lines
+            .buffer(batchSize)
+            .index()
+            .concatMap(batch -> importBatch(batch.getT1() + 1, batch.getT2(), idGetter, toEntity), 1);
+    }
+
+    private <T, E> Mono<BulkImportResultDTO> importBatch(
+        long batchNumber,
+        List<BulkImportLine<T>> lines,
+        Function<T, Long> idGetter,
+        Function<T, E> toEntity
+    ) {
+        BulkImportResultDTO result = new BulkImportResultDTO();
+        result.setBatch(batchNumber);
+        result.setFirstLine(lines.get(0).getLineNumber());
+        result.setLastLine(lines.get(lines.size() - 1).getLineNumber());
+        List<E> entities = new ArrayList<>(lines.size());
+        for (BulkImportLine<T> line : lines) {
+            String error = validate(line, idGetter);
+            if (error != null) {
+                result.getErrors().add("line " + line.getLineNumber() + ": " + error);
+            } else {
+                entities.add(toEntity.apply(line.getValue()));
+            }
+        }
+        result.setRejected(lines.size() - entities.size());
+
+        return transactionalOperator
+            .transactional(entityManager.insertAll(entities))
+            .map(
+                imported -> {
+                    result.setImported(imported);
+                    return result;
+                }
+            )
+            .onErrorResume(
+                e -> {
+                    log.warn("Bulk import of batch {} failed: {}", batchNumber, e.getMessage());
+                    result.setRejected(lines.size());
+                    result.setImported(0);
+                    result.getErrors().add("batch " + batchNumber + " rolled back: " + describe(e));
+                    return Mono.just(result);
+                }
+            );
+    }
+
+    /**
+     * Describes the error of the database, without the statement, which holds no information for the client.
+     */
+    private static String describe(Throwable e) {
+        String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+        if (message == null) {
+            return e.getClass().getSimpleName();
+        }
+        int statement = message.indexOf("; SQL statement");
+        return (statement >= 0 ? message.substring(0, statement) : message).lines().findFirst().orElse(message);
+    }
+
+    private <T> String validate(BulkImportLine<T> line, Function<T, Long> idGetter) {
+        if (!line.isValid()) {
+            return line.getError();
+        }
+        if (line.getValue() == null) {
+            return "empty element";
+        }
+        if (idGetter.apply(line.getValue()) != null) {
+            return "a new element cannot already have an ID";
+        }
+        for (ConstraintViolation<T> violation : validator.validate(line.getValue())) {
+            return violation.getPropertyPath() + " " + violation.getMessage();
+        }
+        return null;
+    }
+}
@@ -1,6 +1,9 @@
 package com.github.ghrocs.service;
 
 import io.r2dbc.spi.Row;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
@@ -10,13 +13,25 @@ import org.springframework.util.ClassUtils;
 
 /**
  * This service provides helper function dealing with the low level {@link Row} and Spring's {@link R2dbcCustomConversions}, so type conversions can be applied.
+ * <p>
+ * Whether the driver reads a column as the target type, or its value has to be converted, is found out on the first non null value of
+ * the column, and remembered for the next rows: a driver, which can't read a type, only throws once.
  */
 @Service
 public class ColumnConverter {
 
+    private enum Access {
+        DRIVER,
+        CONVERSION,
+    }
+
     private final ConversionService conversionService;
     private final R2dbcCustomConversions conversions;
 
+    private final Map<Class<?>, Map<String, Access>> accesses = new ConcurrentHashMap<>();
+
+    private final Map<Class<?>, Map<String, Enum<?>>> enumConstants = new ConcurrentHashMap<>();
+
     public ColumnConverter(R2dbcCustomConversions conversions, R2dbcConverter r2dbcConverter) {
         this.conversionService = r2dbcConverter.getConversionService();
         this.conversions = conversions;
@@ -40,7 +55,11 @@ public class ColumnConverter {
         }
 
         if (Enum.class.isAssignableFrom(target)) {
-            return (T) Enum.valueOf((Class<Enum>) target, value.toString());
+            Enum<?> constant = enumConstants.computeIfAbsent(target, ColumnConverter::indexConstants).get(value.toString());
+            if (constant == null) {
+                throw new IllegalArgumentException("No enum constant " + target.getCanonicalName() + "." + value);
+            }
+            return (T) constant;
         }
 
         return conversionService.convert(value, target);
@@ -55,12 +74,35 @@ public class ColumnConverter {
      * @return the value which can be constructed from the input.
      */
     public <T> T fromRow(Row row, String columnName, Class<T> target) {
+        Map<String, Access> columnAccesses = accesses.computeIfAbsent(target, t -> new ConcurrentHashMap<>());
+        Access access = columnAccesses.get(columnName);
+        if (access == null && Enum.class.isAssignableFrom(target)) {
+            // the drivers read the enums as strings
+            access = Access.CONVERSION;
+            columnAccesses.put(columnName, access);
+        }
+        if (access == Access.CONVERSION) {
+            return convert(row.get(columnName), target);
+        }
         try {
             // try, directly the driver
-            return row.get(columnName, target);
+            T value = row.get(columnName, target);
+            if (access == null && value != null) {
+                columnAccesses.put(columnName, Access.DRIVER);
+            }
+            return value;
         } catch (Exception e) {
+            columnAccesses.put(columnName, Access.CONVERSION);
             Object obj = row.get(columnName);
             return convert(obj, target);
         }
     }
+
+    private static Map<String, Enum<?>> indexConstants(Class<?> enumType) {
+        Map<String, Enum<?>> constants = new HashMap<>();
+        for (Object constant : enumType.getEnumConstants()) {
+            constants.put(((Enum<?>) constant).name(), (Enum<?>) constant);
+        }
+        return constants;
+    }
 }
@@ -1,5 +1,6 @@
 package com.github.ghrocs.service;
 
+import com.github.ghrocs.service.dto.BulkImportResultDTO;
 import com.github.ghrocs.service.dto.CountryDTO;
 import org.springframework.data.domain.Pageable;
 import reactor.core.publisher.Flux;
@@ -18,13 +19,33 @@ public interface CountryService {
     Mono<CountryDTO> save(CountryDTO countryDTO);
 
     /**
-     * Partially updates a country.
+     * Updates a country, in a single statement, unless it changed since the version of the DTO.
+     *
+     * @param countryDTO the entity to update, with the version it was read at.
+     * @return the persisted entity, empty if the country doesn't exist,
+     * or an {@link org.springframework.dao.OptimisticLockingFailureException} if it changed since its version.
+     */
+    Mono<CountryDTO> update(CountryDTO countryDTO);
+
+    /**
+     * Partially updates a country: only its fields, which aren't null in the DTO, are written. With the version of the DTO, the update is
+     * a single statement, which returns the updated row. Without it, this is the slow path: the country is read first, then updated at
+     * the version read, in two round trips.
      *
      * @param countryDTO the entity to update partially.
-     * @return the persisted entity.
+     * @return the persisted entity, empty if the country doesn't exist,
+     * or an {@link org.springframework.dao.OptimisticLockingFailureException} if it changed since its version.
      */
     Mono<CountryDTO> partialUpdate(CountryDTO countryDTO);
 
+    /**
+     * Imports new countries in batches.
+     *
+     * @param lines the lines of the import, with the countries to create.
+     * @return the result of every batch.
+     */
+    Flux<BulkImportResultDTO> importAll(Flux<BulkImportLine<CountryDTO>> lines);
+
     /**
      * Get all the countries.
      *
@@ -33,6 +54,21 @@ public interface CountryService {
      */
     Flux<CountryDTO> findAll(Pageable pageable);
 
+    /**
+     * Get all the countries, with their region, as they are read.
+     *
+     * @return the list of entities.
+     */
+    Flux<CountryDTO> findAll();
+
+    /**
+     * Get the countries after the sort key of the keyset.
+     *
+     * @param keyset the keyset pagination information.
+     * @return the list of entities, with at most {@link Keyset#getLimit()} elements.
+     */
+    Flux<CountryDTO> findAll(Keyset keyset);
+
     /**
      * Returns the number of countries available.
      * @return the number of entities in the database.
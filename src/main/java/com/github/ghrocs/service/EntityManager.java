@@ -1,30 +1,55 @@
 package com.github.ghrocs.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.ghrocs.config.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.r2dbc.spi.Row;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.SimplePropertyHandler;
 import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.core.ReactiveDataAccessStrategy;
 import org.springframework.data.r2dbc.core.StatementMapper;
+import org.springframework.data.r2dbc.dialect.H2Dialect;
+import org.springframework.data.r2dbc.dialect.PostgresDialect;
+import org.springframework.data.r2dbc.dialect.R2dbcDialect;
 import org.springframework.data.r2dbc.mapping.OutboundRow;
+import org.springframework.data.r2dbc.query.BoundCondition;
 import org.springframework.data.r2dbc.query.UpdateMapper;
 import org.springframework.data.relational.core.mapping.RelationalPersistentEntity;
 import org.springframework.data.relational.core.query.Criteria;
-import org.springframework.data.relational.core.sql.Conditions;
+import org.springframework.data.relational.core.query.CriteriaDefinition;
+import org.springframework.data.relational.core.query.Update;
 import org.springframework.data.relational.core.sql.OrderByField;
 import org.springframework.data.relational.core.sql.Select;
-import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoin;
-import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoinCondition;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectOrdered;
+import org.springframework.data.relational.core.sql.SelectBuilder.SelectWhere;
 import org.springframework.data.relational.core.sql.SqlIdentifier;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.data.relational.core.sql.render.SqlRenderer;
 import org.springframework.r2dbc.core.Parameter;
+import org.springframework.r2dbc.core.PreparedOperation;
+import org.springframework.r2dbc.core.binding.BindMarker;
+import org.springframework.r2dbc.core.binding.BindMarkers;
+import org.springframework.r2dbc.core.binding.BindTarget;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
 import reactor.core.publisher.Flux;
@@ -32,7 +57,9 @@ import reactor.core.publisher.Mono;
 
 /**
  * Helper class to create SQL selects based on the entity, paging parameters and criteria.
- *
+ * <p>
+ * The selects with bound values are rendered once per shape and kept in a bounded statement cache, its hits and misses are published
+ * as the {@code entityManager.statements} cache metrics.
  */
 @Service
 public class EntityManager {
@@ -40,6 +67,8 @@ public class EntityManager {
     public static final String ENTITY_ALIAS = "e";
     public static final String ALIAS_PREFIX = "e_";
 
+    private static final long STATEMENT_CACHE_SIZE = 1000;
+
     public static class LinkTable {
 
         final String tableName;
@@ -60,86 +89,243 @@ public class EntityManager {
     private final UpdateMapper updateMapper;
     private final R2dbcEntityTemplate r2dbcEntityTemplate;
     private final StatementMapper statementMapper;
+    private final R2dbcDialect dialect;
+    private final Cache<String, String> statementCache;
+    private final int linkTableBatchSize;
 
-    public EntityManager(SqlRenderer sqlRenderer, UpdateMapper updateMapper, R2dbcEntityTemplate r2dbcEntityTemplate) {
+    public EntityManager(
+        SqlRenderer sqlRenderer,
+        UpdateMapper updateMapper,
+        R2dbcEntityTemplate r2dbcEntityTemplate,
+        R2dbcDialect dialect,
+        MeterRegistry meterRegistry,
+        ApplicationProperties applicationProperties
+    ) {
         this.sqlRenderer = sqlRenderer;
         this.updateMapper = updateMapper;
         this.r2dbcEntityTemplate = r2dbcEntityTemplate;
+        this.dialect = dialect;
         this.statementMapper = r2dbcEntityTemplate.getDataAccessStrategy().getStatementMapper();
+        this.statementCache = Caffeine.newBuilder().maximumSize(STATEMENT_CACHE_SIZE).recordStats().build();
+        CaffeineCacheMetrics.monitor(meterRegistry, statementCache, "entityManager.statements");
+        this.linkTableBatchSize = applicationProperties.getDatabase().getLinkTableBatchSize();
+        Assert.isTrue(linkTableBatchSize > 0, "application.database.link-table-batch-size must be positive");
     }
 
     /**
-     * Creates an SQL select statement from the given fragment and pagination parameters.
-     * @param selectFrom a representation of a select statement.
+     * Creates an SQL select statement from the given fragment, pagination parameters and criteria. The statement is rendered once per
+     * entity type, fragment, sort, paging and criteria shape, and taken from the statement cache afterwards, the values of the criteria and
+     * the paging are bound to it.
+     * @param selectName identifies the projection and joins of the fragment among the selects of the entity type.
+     * @param selectFrom supplies a representation of a select statement, it's only called when the statement isn't cached yet.
      * @param entityType the entity type which holds the table name.
      * @param pageable page parameter, or null, if everything needs to be returned
-     * @return sql select statement
+     * @param criteria the criteria the rows have to match, or null.
+     * @return sql select statement, with the values bound to it.
      */
-    public String createSelect(SelectFromAndJoin selectFrom, Class<?> entityType, Pageable pageable, Criteria criteria) {
-        if (pageable != null) {
-            if (criteria != null) {
-                return createSelectImpl(
-                    selectFrom.limitOffset(pageable.getPageSize(), pageable.getOffset()).where(Conditions.just(criteria.toString())),
-                    entityType,
-                    pageable.getSort()
-                );
-            } else {
-                return createSelectImpl(
-                    selectFrom.limitOffset(pageable.getPageSize(), pageable.getOffset()),
-                    entityType,
-                    pageable.getSort()
-                );
+    public PreparedOperation<String> createSelect(
+        String selectName,
+        Supplier<? extends SelectWhere> selectFrom,
+        Class<?> entityType,
+        Pageable pageable,
+        Criteria criteria
+    ) {
+        if (pageable == null || pageable.isUnpaged()) {
+            return createCachedSelect(selectName, selectFrom, entityType, Sort.unsorted(), criteria, null, null);
+        }
+        return createCachedSelect(
+            selectName,
+            selectFrom,
+            entityType,
+            pageable.getSort(),
+            criteria,
+            pageable.getPageSize(),
+            pageable.getOffset()
+        );
+    }
+
+    /**
+     * Creates an SQL select statement of all the rows matching the criteria, in the given order. The statement is cached like the ones of
+     * {@link #createSelect(String, Supplier, Class, Pageable, Criteria)}.
+     * @param selectName identifies the projection and joins of the fragment among the selects of the entity type.
+     * @param selectFrom supplies a representation of a select statement, it's only called when the statement isn't cached yet.
+     * @param entityType the entity type which holds the table name.
+     * @param sort the order of the rows.
+     * @param criteria the criteria the rows have to match, or null.
+     * @return sql select statement, with the values bound to it.
+     */
+    public PreparedOperation<String> createSelect(
+        String selectName,
+        Supplier<? extends SelectWhere> selectFrom,
+        Class<?> entityType,
+        Sort sort,
+        Criteria criteria
+    ) {
+        return createCachedSelect(selectName, selectFrom, entityType, sort, criteria, null, null);
+    }
+
+    /**
+     * Creates an SQL select statement from the given fragment, which continues after the sort key of the keyset. The statement is cached
+     * like the ones of {@link #createSelect(String, Supplier, Class, Pageable, Criteria)}.
+     * @param selectName identifies the projection and joins of the fragment among the selects of the entity type.
+     * @param selectFrom supplies a representation of a select statement, it's only called when the statement isn't cached yet.
+     * @param entityType the entity type which holds the table name.
+     * @param keyset the sort, the sort key of the last row already returned and the page size.
+     * @param criteria additional criteria the rows have to match, or null.
+     * @return sql select statement, with the values of the sort key and the criteria bound to it.
+     */
+    public PreparedOperation<String> createSelect(
+        String selectName,
+        Supplier<? extends SelectWhere> selectFrom,
+        Class<?> entityType,
+        Keyset keyset,
+        Criteria criteria
+    ) {
+        Criteria where = criteria;
+        if (!keyset.isFirstPage()) {
+            where = criteria == null ? createKeysetCriteria(keyset) : criteria.and(createKeysetCriteria(keyset));
+        }
+        return createCachedSelect(selectName, selectFrom, entityType, keyset.getSort(), where, keyset.getLimit(), null);
+    }
+
+    private PreparedOperation<String> createCachedSelect(
+        String selectName,
+        Supplier<? extends SelectWhere> selectFrom,
+        Class<?> entityType,
+        Sort sort,
+        Criteria criteria,
+        Integer limit,
+        Long offset
+    ) {
+        RelationalPersistentEntity<?> entity = getPersistentEntity(entityType);
+        Assert.notNull(entity, "entityType is not a persistent entity");
+        Table table = Table.create(entity.getTableName()).as(EntityManager.ENTITY_ALIAS);
+
+        // the bind markers are created in the same order on every call, so they match the placeholders of the cached statement
+        BindMarkers bindMarkers = dialect.getBindMarkersFactory().create();
+        BoundCondition condition = criteria == null || criteria.isEmpty()
+            ? null
+            : updateMapper.getMappedObject(bindMarkers, criteria, table, entity);
+        BindMarker limitMarker = limit != null ? bindMarkers.next() : null;
+        BindMarker offsetMarker = offset != null ? bindMarkers.next() : null;
+
+        StringBuilder key = new StringBuilder(entityType.getName()).append(':').append(selectName).append(':').append(sort);
+        key.append(':').append(limitMarker != null).append(':').append(offsetMarker != null).append(':');
+        appendShape(key, criteria);
+        String sql = statementCache.get(
+            key.toString(),
+            k -> {
+                SelectOrdered select = condition != null ? selectFrom.get().where(condition.getCondition()) : selectFrom.get();
+                if (sort.isSorted()) {
+                    select = select.orderBy(createOrderByFields(table, updateMapper.getMappedObject(sort, entity)));
+                }
+                StringBuilder statement = new StringBuilder(sqlRenderer.render(select.build()));
+                if (limitMarker != null) {
+                    statement.append(" LIMIT ").append(limitMarker.getPlaceholder());
+                }
+                if (offsetMarker != null) {
+                    statement.append(" OFFSET ").append(offsetMarker.getPlaceholder());
+                }
+                return statement.toString();
+            }
+        );
+
+        return new BoundStatement(
+            sql,
+            target -> {
+                if (condition != null) {
+                    condition.getBindings().apply(target);
+                }
+                if (limitMarker != null) {
+                    limitMarker.bind(target, limit);
+                }
+                if (offsetMarker != null) {
+                    offsetMarker.bind(target, offset);
+                }
+            }
+        );
+    }
+
+    /**
+     * Appends the structure of the criteria without its values: the columns, comparators and combinators, and the number of values of
+     * collections, which all change the rendered SQL.
+     */
+    private static void appendShape(StringBuilder shape, CriteriaDefinition criteria) {
+        if (criteria == null || criteria.isEmpty()) {
+            return;
+        }
+        appendShape(shape, criteria.getPrevious());
+        shape.append(criteria.getCombinator()).append('(');
+        if (criteria.isGroup()) {
+            for (CriteriaDefinition groupCriteria : criteria.getGroup()) {
+                appendShape(shape, groupCriteria);
             }
         } else {
-            if (criteria != null) {
-                return createSelectImpl(selectFrom.where(Conditions.just(criteria.toString())), entityType, null);
-            } else {
-                return createSelectImpl(selectFrom, entityType, null);
+            shape.append(criteria.getColumn()).append(' ').append(criteria.getComparator());
+            if (criteria.isIgnoreCase()) {
+                shape.append(" ignoreCase");
+            }
+            if (criteria.getValue() instanceof Collection) {
+                shape.append(' ').append(((Collection<?>) criteria.getValue()).size());
+            } else if (criteria.getValue() instanceof Object[]) {
+                shape.append(' ').append(((Object[]) criteria.getValue()).length);
             }
         }
+        shape.append(')');
     }
 
     /**
-     * Creates an SQL select statement from the given fragment and pagination parameters.
-     * @param selectFrom a representation of a select statement.
-     * @param entityType the entity type which holds the table name.
-     * @param pageable page parameter, or null, if everything needs to be returned
-     * @return sql select statement
+     * Creates the criteria matching the rows after the sort key of the keyset, as {@code (a > :a) OR (a = :a AND b > :b) OR ...}.
+     * {@code null} values are placed where the database sorts them: PostgreSQL sorts them as the greatest values, H2 as the smallest.
      */
-    public String createSelect(SelectFromAndJoinCondition selectFrom, Class<?> entityType, Pageable pageable, Criteria criteria) {
-        if (pageable != null) {
-            if (criteria != null) {
-                return createSelectImpl(
-                    selectFrom.limitOffset(pageable.getPageSize(), pageable.getOffset()).where(Conditions.just(criteria.toString())),
-                    entityType,
-                    pageable.getSort()
-                );
+    private Criteria createKeysetCriteria(Keyset keyset) {
+        boolean nullsHigh = dialect instanceof PostgresDialect && !(dialect instanceof H2Dialect);
+        List<Sort.Order> orders = keyset.getSort().toList();
+        Criteria keysetCriteria = Criteria.empty();
+        Criteria equalPrefix = Criteria.empty();
+        for (int i = 0; i < orders.size(); i++) {
+            Sort.Order order = orders.get(i);
+            String property = order.getProperty();
+            Object value = keyset.getAfter().get(i);
+            boolean nullsAfter = order.isAscending() == nullsHigh && !Keyset.ID_PROPERTY.equals(property);
+            Criteria after = null;
+            if (value == null) {
+                if (!nullsAfter) {
+                    after = Criteria.where(property).isNotNull();
+                }
             } else {
-                return createSelectImpl(
-                    selectFrom.limitOffset(pageable.getPageSize(), pageable.getOffset()),
-                    entityType,
-                    pageable.getSort()
-                );
+                after = order.isAscending() ? Criteria.where(property).greaterThan(value) : Criteria.where(property).lessThan(value);
+                if (nullsAfter) {
+                    after = after.or(property).isNull();
+                }
             }
-        } else {
-            if (criteria != null) {
-                return createSelectImpl(selectFrom.where(Conditions.just(criteria.toString())), entityType, null);
-            } else {
-                return createSelectImpl(selectFrom, entityType, null);
+            if (after != null) {
+                keysetCriteria = keysetCriteria.or(equalPrefix.isEmpty() ? after : equalPrefix.and(after));
             }
+            Criteria equal = value == null ? Criteria.where(property).isNull() : Criteria.where(property).is(value);
+            equalPrefix = equalPrefix.isEmpty() ? equal : equalPrefix.and(equal);
         }
+        return keysetCriteria;
     }
 
-    private String createSelectImpl(SelectOrdered selectFrom, Class<?> entityType, Sort sortParameter) {
-        if (sortParameter != null && sortParameter.isSorted()) {
-            RelationalPersistentEntity<?> entity = getPersistentEntity(entityType);
-            if (entity != null) {
-                Sort sort = updateMapper.getMappedObject(sortParameter, entity);
-                selectFrom =
-                    selectFrom.orderBy(createOrderByFields(Table.create(entity.getTableName()).as(EntityManager.ENTITY_ALIAS), sort));
+    /**
+     * Returns the properties of the entity type, which are mapped to a column of its table: the rows can only be sorted by them.
+     * @param entityType the entity type which holds the table name.
+     * @return the names of the properties.
+     */
+    public Set<String> getColumnProperties(Class<?> entityType) {
+        RelationalPersistentEntity<?> entity = getPersistentEntity(entityType);
+        Assert.notNull(entity, "entityType is not a persistent entity");
+        Set<String> properties = new LinkedHashSet<>();
+        // the transient properties, as the related entities, aren't visited
+        entity.doWithProperties(
+            (SimplePropertyHandler) property -> {
+                if (!property.isEntity()) {
+                    properties.add(property.getName());
+                }
             }
-        }
-        return createSelect(selectFrom.build());
+        );
+        return Collections.unmodifiableSet(properties);
     }
 
     private RelationalPersistentEntity<?> getPersistentEntity(Class<?> entityType) {
@@ -185,35 +371,142 @@ public class EntityManager {
     }
 
     /**
-     * Updates the table, which links the entity with the referred entities.
+     * Inserts the given entities of the same type into the database with a single multi-row statement. The generated ids aren't read
+     * back, so the entities must not have an id yet.
+     * @param <S> the type of the persisted entities.
+     * @param entities the entities to be inserted into the database.
+     * @return the number of inserted rows.
+     */
+    public <S> Mono<Integer> insertAll(List<S> entities) {
+        if (entities.isEmpty()) {
+            return Mono.just(0);
+        }
+        RelationalPersistentEntity<?> entity = getPersistentEntity(entities.get(0).getClass());
+        Assert.notNull(entity, "entities are not persistent entities");
+        ReactiveDataAccessStrategy dataAccessStrategy = r2dbcEntityTemplate.getDataAccessStrategy();
+        BindMarkers bindMarkers = dialect.getBindMarkersFactory().create();
+        List<SqlIdentifier> columns = null;
+        List<Consumer<BindTarget>> bindings = new ArrayList<>();
+        StringJoiner values = new StringJoiner(", ");
+        for (S entityToInsert : entities) {
+            OutboundRow row = dataAccessStrategy.getOutboundRow(entityToInsert);
+            Parameter id = row.remove(entity.getIdColumn());
+            Assert.isTrue(id == null || !id.hasValue(), "entities must not have an id");
+            if (entity.hasVersionProperty()) {
+                // the entities are new, so they start at the initial version, like the ones inserted by R2dbcEntityTemplate
+                row.put(entity.getRequiredVersionProperty().getColumnName(), Parameter.from(0L));
+            }
+            if (columns == null) {
+                columns = new ArrayList<>(row.keySet());
+            }
+            Assert.isTrue(columns.size() == row.size() && row.keySet().containsAll(columns), "entities must have the same columns");
+            StringJoiner placeholders = new StringJoiner(", ", "(", ")");
+            for (SqlIdentifier column : columns) {
+                BindMarker marker = bindMarkers.next();
+                Parameter parameter = row.get(column);
+                placeholders.add(marker.getPlaceholder());
+                if (parameter.hasValue()) {
+                    bindings.add(target -> marker.bind(target, parameter.getValue()));
+                } else {
+                    bindings.add(target -> marker.bindNull(target, parameter.getType()));
+                }
+            }
+            values.add(placeholders.toString());
+        }
+        String sql =
+            "INSERT INTO " +
+            entity.getTableName().toSql(dialect.getIdentifierProcessing()) +
+            columns.stream().map(column -> column.toSql(dialect.getIdentifierProcessing())).collect(Collectors.joining(", ", " (", ")")) +
+            " VALUES " +
+            values;
+        return r2dbcEntityTemplate
+            .getDatabaseClient()
+            .sql(new BoundStatement(sql, target -> bindings.forEach(binding -> binding.accept(target))))
+            .fetch()
+            .rowsUpdated();
+    }
+
+    /**
+     * Updates only the columns of the entity, which aren't null, and reads the updated row back in the same statement, as the values
+     * the statement generated: PostgreSQL appends a {@code RETURNING} clause to the update, H2 returns them as its generated keys. If
+     * the entity has a version, the row is only updated at this version, and its version is incremented.
+     * @param <S> the type of the updated entity.
+     * @param entity the entity with its id, its version, and the values to write.
+     * @param rowMapper maps the columns of the updated row, read by their {@link #ALIAS_PREFIX} aliases like the columns of the selects.
+     * @return the updated entity, empty if the row doesn't exist or changed since the version.
+     */
+    public <S> Mono<S> updateNonNullColumns(S entity, Function<Row, S> rowMapper) {
+        RelationalPersistentEntity<?> persistentEntity = getPersistentEntity(entity.getClass());
+        Assert.notNull(persistentEntity, "entity is not a persistent entity");
+        OutboundRow row = r2dbcEntityTemplate.getDataAccessStrategy().getOutboundRow(entity);
+        String[] columns = row.keySet().stream().map(SqlIdentifier::getReference).toArray(String[]::new);
+        SqlIdentifier idColumn = persistentEntity.getIdColumn();
+        Parameter id = row.remove(idColumn);
+        Assert.isTrue(id != null && id.hasValue(), "entity must have an id");
+        Criteria criteria = Criteria.where(idColumn.getReference()).is(id.getValue());
+        Map<SqlIdentifier, Object> assignments = new LinkedHashMap<>();
+        if (persistentEntity.hasVersionProperty()) {
+            SqlIdentifier versionColumn = persistentEntity.getRequiredVersionProperty().getColumnName();
+            Parameter version = row.remove(versionColumn);
+            Assert.isTrue(version != null && version.hasValue(), "entity must have a version");
+            long currentVersion = ((Number) version.getValue()).longValue();
+            criteria = criteria.and(versionColumn.getReference()).is(currentVersion);
+            assignments.put(versionColumn, currentVersion + 1);
+        }
+        row.forEach(
+            (column, parameter) -> {
+                if (parameter.hasValue()) {
+                    assignments.put(column, parameter.getValue());
+                }
+            }
+        );
+        StatementMapper typedStatementMapper = statementMapper.forType(persistentEntity.getType());
+        PreparedOperation<?> update = typedStatementMapper.getMappedObject(
+            typedStatementMapper.createUpdate(persistentEntity.getTableName(), Update.from(assignments)).withCriteria(criteria)
+        );
+        return r2dbcEntityTemplate
+            .getDatabaseClient()
+            .sql(update)
+            .filter(statement -> statement.returnGeneratedValues(columns))
+            .map((updatedRow, metadata) -> rowMapper.apply(new AliasedRow(updatedRow)))
+            .one();
+    }
+
+    /**
+     * Updates the table, which links the entity with the referred entities. Only the links, which changed, are written: the removed ones
+     * are deleted by a single statement, the added ones are inserted by multi-row statements of at most
+     * {@code application.database.link-table-batch-size} rows.
      * @param table describes the link table, it contains a table name, the column name for the id, and for the referred entity id.
      * @param entityId the id of the entity, for which the links are created.
      * @param referencedIds the id of the referred entities.
      * @return the number of inserted rows.
      */
-    public Mono<Integer> updateLinkTable(LinkTable table, Long entityId, Stream<Long> referencedIds) {
-        return deleteFromLinkTable(table, entityId)
-            .then(
-                Flux
-                    .fromStream(referencedIds)
-                    .flatMap(
-                        (Long referenceId) -> {
-                            StatementMapper.InsertSpec insert = r2dbcEntityTemplate
-                                .getDataAccessStrategy()
-                                .getStatementMapper()
-                                .createInsert(table.tableName)
-                                .withColumn(table.idColumn, Parameter.from(entityId))
-                                .withColumn(table.referenceColumn, Parameter.from(referenceId));
-
-                            return r2dbcEntityTemplate
-                                .getDatabaseClient()
-                                .sql(statementMapper.getMappedObject(insert))
-                                .fetch()
-                                .rowsUpdated();
-                        }
-                    )
-                    .collectList()
-                    .map((List<Integer> updates) -> updates.stream().reduce(Integer::sum).orElse(0))
+    public Mono<Integer> updateLinkTable(LinkTable table, Long entityId, Stream<?> referencedIds) {
+        Assert.notNull(entityId, "entityId is null");
+        Set<Object> linkedIds = referencedIds.collect(Collectors.toCollection(LinkedHashSet::new));
+        StatementMapper.SelectSpec selectSpec = statementMapper
+            .createSelect(table.tableName)
+            .withProjection(SqlIdentifier.unquoted(table.referenceColumn))
+            .withCriteria(Criteria.where(table.idColumn).is(entityId));
+        return r2dbcEntityTemplate
+            .getDatabaseClient()
+            .sql(statementMapper.getMappedObject(selectSpec))
+            .map(row -> row.get(0))
+            .all()
+            .collect(Collectors.toSet())
+            .flatMap(
+                existingIds -> {
+                    List<Object> removedIds = existingIds.stream().filter(id -> !linkedIds.contains(id)).collect(Collectors.toList());
+                    List<Object> addedIds = linkedIds.stream().filter(id -> !existingIds.contains(id)).collect(Collectors.toList());
+                    return deleteFromLinkTable(table, entityId, removedIds)
+                        .then(
+                            Flux
+                                .fromIterable(addedIds)
+                                .buffer(linkTableBatchSize)
+                                .concatMap(batch -> insertIntoLinkTable(table, entityId, batch))
+                                .reduce(0, Integer::sum)
+                        );
+                }
             );
     }
 
@@ -227,6 +520,35 @@ public class EntityManager {
         return r2dbcEntityTemplate.getDatabaseClient().sql(statementMapper.getMappedObject(deleteSpec)).then();
     }
 
+    private Mono<Void> deleteFromLinkTable(LinkTable table, Long entityId, List<Object> referencedIds) {
+        if (referencedIds.isEmpty()) {
+            return Mono.empty();
+        }
+        StatementMapper.DeleteSpec deleteSpec = statementMapper
+            .createDelete(table.tableName)
+            .withCriteria(Criteria.where(table.idColumn).is(entityId).and(table.referenceColumn).in(referencedIds));
+        return r2dbcEntityTemplate.getDatabaseClient().sql(statementMapper.getMappedObject(deleteSpec)).then();
+    }
+
+    private Mono<Integer> insertIntoLinkTable(LinkTable table, Long entityId, List<Object> referencedIds) {
+        BindMarkers bindMarkers = dialect.getBindMarkersFactory().create();
+        List<Consumer<BindTarget>> bindings = new ArrayList<>();
+        StringJoiner values = new StringJoiner(", ");
+        for (Object referencedId : referencedIds) {
+            BindMarker idMarker = bindMarkers.next();
+            BindMarker referenceMarker = bindMarkers.next();
+            values.add("(" + idMarker.getPlaceholder() + ", " + referenceMarker.getPlaceholder() + ")");
+            bindings.add(target -> idMarker.bind(target, entityId));
+            bindings.add(target -> referenceMarker.bind(target, referencedId));
+        }
+        String sql = "INSERT INTO " + table.tableName + " (" + table.idColumn + ", " + table.referenceColumn + ") VALUES " + values;
+        return r2dbcEntityTemplate
+            .getDatabaseClient()
+            .sql(new BoundStatement(sql, target -> bindings.forEach(binding -> binding.accept(target))))
+            .fetch()
+            .rowsUpdated();
+    }
+
     private static Collection<? extends OrderByField> createOrderByFields(Table table, Sort sortToUse) {
         List<OrderByField> fields = new ArrayList<>();
 
@@ -239,4 +561,53 @@ public class EntityManager {
 
         return fields;
     }
+
+    /**
+     * Reads the columns of a row, which aren't aliased, by their {@link #ALIAS_PREFIX} aliases.
+     */
+    private static class AliasedRow implements Row {
+
+        private final Row row;
+
+        AliasedRow(Row row) {
+            this.row = row;
+        }
+
+        @Override
+        public <T> T get(int index, Class<T> type) {
+            return row.get(index, type);
+        }
+
+        @Override
+        public <T> T get(String name, Class<T> type) {
+            Assert.isTrue(name.startsWith(ALIAS_PREFIX), "the columns are read by their aliases");
+            return row.get(name.substring(ALIAS_PREFIX.length()), type);
+        }
+    }
+
+    private static class BoundStatement implements PreparedOperation<String> {
+
+        private final String sql;
+        private final Consumer<BindTarget> binder;
+
+        BoundStatement(String sql, Consumer<BindTarget> binder) {
+            this.sql = sql;
+            this.binder = binder;
+        }
+
+        @Override
+        public String getSource() {
+            return sql;
+        }
+
+        @Override
+        public void bindTo(BindTarget target) {
+            binder.accept(target);
+        }
+
+        @Override
+        public String toQuery() {
+            return sql;
+        }
+    }
 }
@@ -0,0 +1,133 @@
+package com.github.ghrocs.service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.r2dbc.dialect.H2Dialect;
+import org.springframework.data.r2dbc.dialect.PostgresDialect;
+import org.springframework.data.r2dbc.dialect.R2dbcDialect;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Leases of the scheduled jobs, stored in the {@code jhi_job_lease} table, so a job runs on a single instance of the cluster at a time.
+ * <p>
+ * A lease is taken with a single conditional update, or the insert of its row by the first run of the job. The insert does nothing if
+ * the row already exists, so the instances which don't hold the lease don't fail a statement on every run. An instance, which doesn't
+ * get the lease, skips the run at once. The lease is held until the job completes, but at least {@code lockAtLeastFor}, so the
+ * instances firing the same cron a bit later, with a skewed clock, skip it too. It's held at most {@code lockAtMostFor}, so the job
+ * still runs if the instance holding the lease dies.
+ */
+@Component
+public class JobLeases {
+
+    private final Logger log = LoggerFactory.getLogger(JobLeases.class);
+
+    private final DatabaseClient db;
+
+    private final String owner;
+
+    private final String insertIfAbsent;
+
+    public JobLeases(DatabaseClient db, R2dbcDialect dialect) {
+        this.db = db;
+        this.owner = hostName() + "-" + UUID.randomUUID();
+        this.insertIfAbsent = insertIfAbsent(dialect);
+    }
+
+    /**
+     * Runs a job, if no other instance holds its lease.
+     *
+     * @param name the name of the job.
+     * @param lockAtMostFor the maximum duration of the lease, longer than the job.
+     * @param lockAtLeastFor the minimum duration of the lease.
+     * @param job the job.
+     * @param <T> the type of the result of the job.
+     * @return the result of the job, or empty if it was skipped.
+     */
+    public <T> Mono<T> runExclusively(String name, Duration lockAtMostFor, Duration lockAtLeastFor, Mono<T> job) {
+        return Mono.defer(
+            () -> {
+                Instant acquiredAt = Instant.now();
+                return Mono.usingWhen(
+                    tryAcquire(name, acquiredAt, acquiredAt.plus(lockAtMostFor)),
+                    acquired -> acquired ? job : skip(name),
+                    acquired -> acquired ? release(name, acquiredAt.plus(lockAtLeastFor)) : Mono.empty()
+                );
+            }
+        );
+    }
+
+    private <T> Mono<T> skip(String name) {
+        log.debug("Skipped the job {}, its lease is held by another instance", name);
+        return Mono.empty();
+    }
+
+    private Mono<Boolean> tryAcquire(String name, Instant now, Instant until) {
+        return db
+            .sql("UPDATE jhi_job_lease SET locked_until = :until, locked_by = :owner WHERE name = :name AND locked_until <= :now")
+            .bind("until", utc(until))
+            .bind("owner", owner)
+            .bind("name", name)
+            .bind("now", utc(now))
+            .fetch()
+            .rowsUpdated()
+            .flatMap(updated -> updated > 0 ? Mono.just(true) : insert(name, until));
+    }
+
+    private Mono<Boolean> insert(String name, Instant until) {
+        // the row of the job exists, unless this is its first run
+        return db
+            .sql(insertIfAbsent)
+            .bind("name", name)
+            .bind("until", utc(until))
+            .bind("owner", owner)
+            .fetch()
+            .rowsUpdated()
+            .map(inserted -> inserted > 0)
+            // only when the first runs of the job race each other, outside of PostgreSQL
+            .onErrorReturn(DataIntegrityViolationException.class, false);
+    }
+
+    private Mono<Void> release(String name, Instant lockedAtLeastUntil) {
+        Instant now = Instant.now();
+        return db
+            .sql("UPDATE jhi_job_lease SET locked_until = :until WHERE name = :name AND locked_by = :owner")
+            .bind("until", utc(lockedAtLeastUntil.isAfter(now) ? lockedAtLeastUntil : now))
+            .bind("name", name)
+            .bind("owner", owner)
+            .then();
+    }
+
+    private static String insertIfAbsent(R2dbcDialect dialect) {
+        if (dialect instanceof H2Dialect) {
+            return (
+                "MERGE INTO jhi_job_lease USING (SELECT CAST(:name AS VARCHAR(64)) AS name, CAST(:until AS TIMESTAMP) AS locked_until, " +
+                "CAST(:owner AS VARCHAR(255)) AS locked_by) AS lease ON jhi_job_lease.name = lease.name " +
+                "WHEN NOT MATCHED THEN INSERT (name, locked_until, locked_by) VALUES (lease.name, lease.locked_until, lease.locked_by)"
+            );
+        }
+        String insert = "INSERT INTO jhi_job_lease (name, locked_until, locked_by) VALUES (:name, :until, :owner)";
+        return dialect instanceof PostgresDialect ? insert + " ON CONFLICT (name) DO NOTHING" : insert;
+    }
+
+    private static LocalDateTime utc(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneOffset.UTC);
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.github.ghrocs.service;
+
+import java.util.Collections;
+import java.util.List;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.Assert;
+
+/**
+ * Seek pagination parameters: the sort, the sort key of the last row already returned, and the page size.
+ * <p>
+ * Rows are read after the given sort key instead of skipping the preceding rows with an offset, so the cost of a page does not depend on
+ * how deep it is. The sort always ends with the primary key, which makes the sort key of every row unique.
+ */
+public final class Keyset {
+
+    public static final String ID_PROPERTY = "id";
+
+    private final Sort sort;
+    private final List<Object> after;
+    private final int size;
+
+    private Keyset(Sort sort, List<Object> after, int size) {
+        this.sort = sort;
+        this.after = after;
+        this.size = size;
+    }
+
+    /**
+     * Creates the keyset for the first page.
+     * @param sort the requested sort, the primary key is appended when missing.
+     * @param size the number of rows of a page.
+     * @return the keyset of the first page.
+     */
+    public static Keyset first(Sort sort, int size) {
+        return of(sort, Collections.emptyList(), size);
+    }
+
+    /**
+     * Creates the keyset of the page following the row with the given sort key.
+     * @param sort the requested sort, the primary key is appended when missing.
+     * @param after the values of the sort properties of the last row already returned, in the order of {@link #getSort()}, or an empty
+     * list for the first page.
+     * @param size the number of rows of a page.
+     * @return the keyset of the page.
+     */
+    public static Keyset of(Sort sort, List<Object> after, int size) {
+        Assert.notNull(sort, "sort is null");
+        Assert.notNull(after, "after is null");
+        Assert.isTrue(size > 0, "size must be positive");
+        Sort totalSort = withPrimaryKey(sort);
+        Assert.isTrue(after.isEmpty() || after.size() == totalSort.toList().size(), "after doesn't match the sort");
+        return new Keyset(totalSort, Collections.unmodifiableList(after), size);
+    }
+
+    /**
+     * Returns the sort of the given one, completed with the primary key in the direction of its last order.
+     * @param sort the requested sort.
+     * @return a sort, which orders the rows totally.
+     */
+    public static Sort withPrimaryKey(Sort sort) {
+        if (sort.getOrderFor(ID_PROPERTY) != null) {
+            return sort;
+        }
+        List<Sort.Order> orders = sort.toList();
+        Sort.Direction direction = orders.isEmpty() ? Sort.Direction.ASC : orders.get(orders.size() - 1).getDirection();
+        return sort.and(Sort.by(direction, ID_PROPERTY));
+    }
+
+    public Sort getSort() {
+        return sort;
+    }
+
+    public List<Object> getAfter() {
+        return after;
+    }
+
+    public boolean isFirstPage() {
+        return after.isEmpty();
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * One row more than the page size is read, so the caller can tell whether a further page exists.
+     * @return the number of rows to read.
+     */
+    public int getLimit() {
+        return size + 1;
+    }
+
+    @Override
+    public String toString() {
+        return "Keyset{" + "sort=" + sort + ", after=" + after + ", size=" + size + "}";
+    }
+}
@@ -0,0 +1,139 @@
+package com.github.ghrocs.service;
+
+import com.github.ghrocs.config.ApplicationProperties;
+import com.github.ghrocs.domain.OutboxMail;
+import com.github.ghrocs.domain.User;
+import com.github.ghrocs.repository.OutboxMailRepository;
+import com.github.ghrocs.repository.UserRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Moves the emails of the outbox to the {@link MailQueue}, in batches of {@code application.mail-outbox.batch-size}.
+ * <p>
+ * An email stays in the outbox until it's sent, so the emails of the users written before a restart, or lost by the mail queue, are still
+ * sent: once queued, it's locked for {@code application.mail-outbox.lock-duration} and deleted when the mail queue reports it sent. An
+ * email, which the mail queue rejected, is unlocked at once, and one which wasn't sent before the lock expires is moved again, so an email
+ * is sent at least once. A poll only takes as many emails as the mail queue can hold: a burst waits in the outbox rather than in memory.
+ */
+@Component
+public class MailOutboxPoller {
+
+    private static final String POLL_JOB = "mailOutbox";
+
+    private static final Duration POLL_LEASE_MAX = Duration.ofMinutes(1);
+
+    private final Logger log = LoggerFactory.getLogger(MailOutboxPoller.class);
+
+    private final OutboxMailRepository outboxMailRepository;
+
+    private final UserRepository userRepository;
+
+    private final MailService mailService;
+
+    private final MailQueue mailQueue;
+
+    private final JobLeases jobLeases;
+
+    private final ApplicationProperties.MailOutbox properties;
+
+    public MailOutboxPoller(
+        OutboxMailRepository outboxMailRepository,
+        UserRepository userRepository,
+        MailService mailService,
+        MailQueue mailQueue,
+        JobLeases jobLeases,
+        ApplicationProperties applicationProperties
+    ) {
+        this.outboxMailRepository = outboxMailRepository;
+        this.userRepository = userRepository;
+        this.mailService = mailService;
+        this.mailQueue = mailQueue;
+        this.jobLeases = jobLeases;
+        this.properties = applicationProperties.getMailOutbox();
+    }
+
+    /**
+     * Polls the outbox on a single instance of the cluster at a time, so an email is sent once.
+     * <p>
+     * The poll isn't waited for, so it doesn't hold the thread shared by the scheduled jobs: a poll, which fires while the previous one
+     * still runs, finds its lease held and is skipped.
+     */
+    @Scheduled(fixedDelayString = "${application.mail-outbox.poll-interval:PT1S}")
+    public void poll() {
+        jobLeases
+            .runExclusively(POLL_JOB, POLL_LEASE_MAX, Duration.ZERO, Mono.defer(this::pollReactively))
+            .subscribe(null, e -> log.error("Could not move the emails of the outbox to the mail queue", e));
+    }
+
+    /**
+     * Moves the next batch of unlocked emails to the mail queue.
+     *
+     * @return the number of emails moved.
+     */
+    public Mono<Integer> pollReactively() {
+        int limit = Math.min(properties.getBatchSize(), mailQueue.remainingCapacity());
+        if (limit == 0) {
+            return Mono.just(0);
+        }
+        Instant now = Instant.now();
+        return outboxMailRepository
+            .findAllUnlocked(now, limit)
+            .collectList()
+            .filter(mails -> !mails.isEmpty())
+            .flatMap(
+                mails ->
+                    outboxMailRepository
+                        .lockAllByIdIn(now.plus(properties.getLockDuration()), ids(mails))
+                        .then(
+                            userRepository
+                                .findAllById(mails.stream().map(OutboxMail::getUserId).distinct().collect(Collectors.toList()))
+                                .collectMap(User::getId)
+                        )
+                        .map(users -> send(mails, users))
+                        .flatMap(rejected -> rejected.isEmpty() ? Mono.empty() : outboxMailRepository.unlockAllByIdIn(ids(rejected)))
+                        .thenReturn(mails.size())
+            )
+            .doOnNext(count -> log.debug("Moved {} emails from the outbox to the mail queue", count))
+            .defaultIfEmpty(0);
+    }
+
+    /**
+     * Queues the emails, each one is deleted from the outbox once it's sent.
+     *
+     * @return the emails the mail queue rejected.
+     */
+    private List<OutboxMail> send(List<OutboxMail> mails, Map<Long, User> users) {
+        List<OutboxMail> rejected = new ArrayList<>();
+        for (OutboxMail mail : mails) {
+            // the user is deleted with its emails, unless it's deleted during the poll
+            User user = users.get(mail.getUserId());
+            if (user != null && !mailService.sendEmail(user, mail.getTemplate(), () -> delete(mail))) {
+                rejected.add(mail);
+            }
+        }
+        return rejected;
+    }
+
+    private void delete(OutboxMail mail) {
+        outboxMailRepository
+            .deleteById(mail.getId())
+            .subscribe(
+                null,
+                e -> log.warn("Email {} was sent but could not be deleted from the outbox, it will be sent again", mail.getId(), e)
+            );
+    }
+
+    private static List<Long> ids(List<OutboxMail> mails) {
+        return mails.stream().map(OutboxMail::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,276 @@
+package com.github.ghrocs.service;
+
+import com.github.ghrocs.config.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import javax.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+/**
+ * Queue of the outgoing emails, configured by {@code application.mail-queue}.
+ * <p>
+ * The emails are grouped in batches of at most {@code batch-size} emails, or of the emails queued during {@code flush-interval}. A batch
+ * is prepared, its templates rendered, and sent over a single SMTP connection on one of the {@code pool-size} mail threads. The emails of
+ * a batch that couldn't be sent are sent again, up to {@code max-attempts} times with an exponential backoff. Once {@code capacity} emails
+ * are waiting, the next ones are dropped.
+ * <p>
+ * The number of waiting emails is published as the {@code mail.queue.size} gauge, the delay between the queuing and the sending of an
+ * email as the {@code mail.delivery} timer tagged with its {@code result}, and the emails dropped because the queue is full or shut down
+ * as the {@code mail.rejected} counter.
+ */
+@Component
+public class MailQueue implements DisposableBean {
+
+    public static final String NAME = "mail";
+
+    public static final String SIZE_GAUGE = "mail.queue.size";
+
+    public static final String DELIVERY_TIMER = "mail.delivery";
+
+    public static final String REJECTED_COUNTER = "mail.rejected";
+
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(10);
+
+    private final Logger log = LoggerFactory.getLogger(MailQueue.class);
+
+    private final JavaMailSender javaMailSender;
+
+    private final ApplicationProperties.MailQueue properties;
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final Timer sent;
+
+    private final Timer failed;
+
+    private final Counter rejected;
+
+    private final ThreadPoolExecutor executor;
+
+    private final Scheduler scheduler;
+
+    private final Sinks.Many<Mail> sink = Sinks.many().unicast().onBackpressureBuffer();
+
+    private final CompletableFuture<Void> completion;
+
+    public MailQueue(JavaMailSender javaMailSender, ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this.javaMailSender = javaMailSender;
+        this.properties = applicationProperties.getMailQueue();
+        meterRegistry.gauge(SIZE_GAUGE, size);
+        this.sent = meterRegistry.timer(DELIVERY_TIMER, "result", "sent");
+        this.failed = meterRegistry.timer(DELIVERY_TIMER, "result", "failed");
+        this.rejected = meterRegistry.counter(REJECTED_COUNTER);
+        this.executor =
+            new ThreadPoolExecutor(
+                properties.getPoolSize(),
+                properties.getPoolSize(),
+                0,
+                TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                new CustomizableThreadFactory("mail-")
+            );
+        this.scheduler = Schedulers.fromExecutorService(ExecutorServiceMetrics.monitor(meterRegistry, executor, NAME), NAME);
+        this.completion =
+            sink
+                .asFlux()
+                .bufferTimeout(properties.getBatchSize(), properties.getFlushInterval())
+                // the batches wait here while all the mail threads are busy, their number is bounded by the capacity
+                .onBackpressureBuffer()
+                .flatMap(this::deliver, properties.getPoolSize())
+                .then()
+                .toFuture();
+    }
+
+    /**
+     * Queues an email.
+     *
+     * @param to the recipient, for the logs.
+     * @param preparation the preparation of the email, called on a mail thread.
+     * @return false if the queue is full, or shut down, and the email is dropped.
+     */
+    public boolean enqueue(String to, Callable<MimeMessage> preparation) {
+        return enqueue(to, preparation, () -> {});
+    }
+
+    /**
+     * Queues an email, and tells when it's sent.
+     *
+     * @param to the recipient, for the logs.
+     * @param preparation the preparation of the email, called on a mail thread.
+     * @param onSent called on a mail thread once the email is sent, it isn't called if the email is dropped.
+     * @return false if the queue is full, or shut down, and the email is dropped.
+     */
+    public boolean enqueue(String to, Callable<MimeMessage> preparation, Runnable onSent) {
+        if (size.incrementAndGet() > properties.getCapacity()) {
+            return reject(to, "the mail queue is full");
+        }
+        Mail mail = new Mail(to, preparation, onSent);
+        Sinks.EmitResult result;
+        do {
+            // the emails are queued concurrently, retry until this thread gets its turn
+            result = sink.tryEmitNext(mail);
+        } while (result == Sinks.EmitResult.FAIL_NON_SERIALIZED);
+        if (result.isFailure()) {
+            return reject(to, "the mail queue is shut down");
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of emails that can be queued before the next ones are dropped.
+     */
+    public int remainingCapacity() {
+        return Math.max(properties.getCapacity() - size.get(), 0);
+    }
+
+    private boolean reject(String to, String reason) {
+        size.decrementAndGet();
+        rejected.increment();
+        log.warn("Email could not be sent to user '{}': {}", to, reason);
+        return false;
+    }
+
+    private Mono<Void> deliver(List<Mail> batch) {
+        List<Mail> remaining = new ArrayList<>(batch.size());
+        Mono<Void> preparation = Mono
+            .<Void>fromRunnable(
+                () -> {
+                    for (Mail mail : batch) {
+                        if (mail.prepare()) {
+                            remaining.add(mail);
+                        }
+                    }
+                }
+            )
+            .subscribeOn(scheduler);
+        // only the sending is attempted again, with the emails that failed
+        Mono<Void> sending = Mono
+            .<Void>fromRunnable(() -> send(remaining))
+            .subscribeOn(scheduler)
+            .retryWhen(
+                Retry
+                    .backoff(properties.getMaxAttempts() - 1L, properties.getBackoff())
+                    .filter(MailSendException.class::isInstance)
+                    .onRetryExhaustedThrow((spec, signal) -> signal.failure())
+            );
+        return preparation
+            .then(sending)
+            .onErrorResume(
+                e -> {
+                    remaining.forEach(mail -> mail.fail(e));
+                    return Mono.empty();
+                }
+            );
+    }
+
+    /**
+     * Sends the prepared emails over a single connection, and keeps the ones that failed.
+     */
+    private void send(List<Mail> remaining) {
+        if (remaining.isEmpty()) {
+            return;
+        }
+        try {
+            javaMailSender.send(remaining.stream().map(mail -> mail.message).toArray(MimeMessage[]::new));
+            remaining.forEach(Mail::succeed);
+            remaining.clear();
+        } catch (MailSendException e) {
+            Map<Object, Exception> failedMessages = e.getFailedMessages();
+            if (!failedMessages.isEmpty()) {
+                List<Mail> delivered = remaining
+                    .stream()
+                    .filter(mail -> !failedMessages.containsKey(mail.message))
+                    .collect(Collectors.toList());
+                delivered.forEach(Mail::succeed);
+                remaining.removeAll(delivered);
+            }
+            log.debug("{} emails could not be sent, they will be sent again", remaining.size(), e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        // the queued emails are still sent, for a while
+        sink.tryEmitComplete();
+        try {
+            completion.get(SHUTDOWN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("{} emails could not be sent before the shutdown", size.get());
+        }
+        scheduler.dispose();
+        executor.shutdown();
+    }
+
+    private final class Mail {
+
+        private final String to;
+
+        private final Callable<MimeMessage> preparation;
+
+        private final Runnable onSent;
+
+        private final long queuedAt = System.nanoTime();
+
+        private MimeMessage message;
+
+        private Mail(String to, Callable<MimeMessage> preparation, Runnable onSent) {
+            this.to = to;
+            this.preparation = preparation;
+            this.onSent = onSent;
+        }
+
+        private boolean prepare() {
+            try {
+                message = preparation.call();
+                return true;
+            } catch (Exception e) {
+                fail(e);
+                return false;
+            }
+        }
+
+        private void succeed() {
+            size.decrementAndGet();
+            sent.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+            log.debug("Sent email to User '{}'", to);
+            try {
+                onSent.run();
+            } catch (RuntimeException e) {
+                log.warn("Email sent to user '{}' could not be acknowledged", to, e);
+            }
+        }
+
+        private void fail(Throwable e) {
+            size.decrementAndGet();
+            failed.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+            log.warn("Email could not be sent to user '{}'", to, e);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.github.ghrocs.service;
 
 import com.github.ghrocs.domain.User;
+import com.github.ghrocs.domain.enumeration.MailTemplate;
 import java.nio.charset.StandardCharsets;
 import java.util.Locale;
 import javax.mail.MessagingException;
@@ -8,10 +9,8 @@ import javax.mail.internet.MimeMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.MessageSource;
-import org.springframework.mail.MailException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.thymeleaf.context.Context;
 import org.thymeleaf.spring5.SpringTemplateEngine;
@@ -20,7 +19,7 @@ import tech.jhipster.config.JHipsterProperties;
 /**
  * Service for sending emails.
  * <p>
- * We use the {@link Async} annotation to send emails asynchronously.
+ * The emails are sent asynchronously by the {@link MailQueue}, which also renders their templates.
  */
 @Service
 public class MailService {
@@ -39,19 +38,22 @@ public class MailService {
 
     private final SpringTemplateEngine templateEngine;
 
+    private final MailQueue mailQueue;
+
     public MailService(
         JHipsterProperties jHipsterProperties,
         JavaMailSender javaMailSender,
         MessageSource messageSource,
-        SpringTemplateEngine templateEngine
+        SpringTemplateEngine templateEngine,
+        MailQueue mailQueue
     ) {
         this.jHipsterProperties = jHipsterProperties;
         this.javaMailSender = javaMailSender;
         this.messageSource = messageSource;
         this.templateEngine = templateEngine;
+        this.mailQueue = mailQueue;
     }
 
-    @Async
     public void sendEmail(String to, String subject, String content, boolean isMultipart, boolean isHtml) {
         log.debug(
             "Send email[multipart '{}' and html '{}'] to '{}' with subject '{}' and content={}",
@@ -61,52 +63,67 @@ public class MailService {
             subject,
             content
         );
+        mailQueue.enqueue(to, () -> createMimeMessage(to, subject, content, isMultipart, isHtml));
+    }
 
-        // Prepare message using a Spring helper
-        MimeMessage mimeMessage = javaMailSender.createMimeMessage();
-        try {
-            MimeMessageHelper message = new MimeMessageHelper(mimeMessage, isMultipart, StandardCharsets.UTF_8.name());
-            message.setTo(to);
-            message.setFrom(jHipsterProperties.getMail().getFrom());
-            message.setSubject(subject);
-            message.setText(content, isHtml);
-            javaMailSender.send(mimeMessage);
-            log.debug("Sent email to User '{}'", to);
-        } catch (MailException | MessagingException e) {
-            log.warn("Email could not be sent to user '{}'", to, e);
+    public void sendEmailFromTemplate(User user, String templateName, String titleKey) {
+        sendEmailFromTemplate(user, templateName, titleKey, () -> {});
+    }
+
+    /**
+     * Queues the email of the given template to the user.
+     *
+     * @param user the recipient.
+     * @param template the template of the email.
+     * @param onSent called on a mail thread once the email is sent, or at once if the user has no email.
+     * @return false if the email could not be queued.
+     */
+    public boolean sendEmail(User user, MailTemplate template, Runnable onSent) {
+        log.debug("Sending {} email to '{}'", template, user.getEmail());
+        switch (template) {
+            case ACTIVATION:
+                return sendEmailFromTemplate(user, "mail/activationEmail", "email.activation.title", onSent);
+            case CREATION:
+                return sendEmailFromTemplate(user, "mail/creationEmail", "email.activation.title", onSent);
+            case PASSWORD_RESET:
+                return sendEmailFromTemplate(user, "mail/passwordResetEmail", "email.reset.title", onSent);
+            default:
+                throw new IllegalArgumentException("Unknown email template " + template);
         }
     }
 
-    @Async
-    public void sendEmailFromTemplate(User user, String templateName, String titleKey) {
+    private boolean sendEmailFromTemplate(User user, String templateName, String titleKey, Runnable onSent) {
         if (user.getEmail() == null) {
             log.debug("Email doesn't exist for user '{}'", user.getLogin());
-            return;
+            onSent.run();
+            return true;
         }
+        String to = user.getEmail();
         Locale locale = Locale.forLanguageTag(user.getLangKey());
         Context context = new Context(locale);
         context.setVariable(USER, user);
         context.setVariable(BASE_URL, jHipsterProperties.getMail().getBaseUrl());
-        String content = templateEngine.process(templateName, context);
-        String subject = messageSource.getMessage(titleKey, null, locale);
-        sendEmail(user.getEmail(), subject, content, false, true);
-    }
-
-    @Async
-    public void sendActivationEmail(User user) {
-        log.debug("Sending activation email to '{}'", user.getEmail());
-        sendEmailFromTemplate(user, "mail/activationEmail", "email.activation.title");
-    }
-
-    @Async
-    public void sendCreationEmail(User user) {
-        log.debug("Sending creation email to '{}'", user.getEmail());
-        sendEmailFromTemplate(user, "mail/creationEmail", "email.activation.title");
+        // the template is rendered on a mail thread
+        return mailQueue.enqueue(
+            to,
+            () -> {
+                String content = templateEngine.process(templateName, context);
+                String subject = messageSource.getMessage(titleKey, null, locale);
+                return createMimeMessage(to, subject, content, false, true);
+            },
+            onSent
+        );
     }
 
-    @Async
-    public void sendPasswordResetMail(User user) {
-        log.debug("Sending password reset email to '{}'", user.getEmail());
-        sendEmailFromTemplate(user, "mail/passwordResetEmail", "email.reset.title");
+    private MimeMessage createMimeMessage(String to, String subject, String content, boolean isMultipart, boolean isHtml)
+        throws MessagingException {
+        // Prepare message using a Spring helper
+        MimeMessage mimeMessage = javaMailSender.createMimeMessage();
+        MimeMessageHelper message = new MimeMessageHelper(mimeMessage, isMultipart, StandardCharsets.UTF_8.name());
+        message.setTo(to);
+        message.setFrom(jHipsterProperties.getMail().getFrom());
+        message.setSubject(subject);
+        message.setText(content, isHtml);
+        return mimeMessage;
     }
 }
@@ -0,0 +1,83 @@
+package com.github.ghrocs.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.function.Function;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+
+/**
+ * A read-through cache of values loaded by a {@link Mono}, backed by a Caffeine {@link AsyncCache}.
+ * <p>
+ * Concurrent reads of a missing key share a single load, an empty or failed load isn't cached. The hits and misses are published as the
+ * {@code cache.gets} metric, tagged with the name of the cache.
+ *
+ * @param <K> the type of the keys.
+ * @param <V> the type of the values.
+ */
+public class ReactiveCache<K, V> {
+
+    private final AsyncCache<K, V> cache;
+
+    public ReactiveCache(String name, long maximumSize, Duration timeToLive, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(timeToLive).recordStats().buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+    }
+
+    /**
+     * Returns the cached value of the key, or loads it.
+     *
+     * @param key the key.
+     * @param loader loads the value of the key.
+     * @return the value, or an empty {@link Mono} if the loader didn't return any.
+     */
+    public Mono<V> get(K key, Function<K, Mono<V>> loader) {
+        // the copy is cancelled instead of the shared load when a subscriber cancels
+        return Mono.defer(() -> Mono.fromFuture(cache.get(key, (k, executor) -> loader.apply(k).toFuture()).copy()));
+    }
+
+    /**
+     * Invalidates the value of the key, and again when the current transaction completes, so a value read concurrently before the commit
+     * isn't kept.
+     *
+     * @param key the key.
+     * @return a {@link Mono} completing once the value is invalidated.
+     */
+    public Mono<Void> invalidate(K key) {
+        return invalidating(() -> cache.synchronous().invalidate(key));
+    }
+
+    /**
+     * Invalidates all the values, and again when the current transaction completes.
+     *
+     * @return a {@link Mono} completing once the values are invalidated.
+     */
+    public Mono<Void> invalidateAll() {
+        return invalidating(() -> cache.synchronous().invalidateAll());
+    }
+
+    private Mono<Void> invalidating(Runnable invalidation) {
+        return Mono
+            .fromRunnable(invalidation)
+            .then(TransactionSynchronizationManager.forCurrentTransaction())
+            .filter(TransactionSynchronizationManager::isSynchronizationActive)
+            .doOnNext(
+                synchronizationManager ->
+                    synchronizationManager.registerSynchronization(
+                        new TransactionSynchronization() {
+                            @Override
+                            public Mono<Void> afterCompletion(int status) {
+                                return Mono.fromRunnable(invalidation);
+                            }
+                        }
+                    )
+            )
+            .onErrorResume(NoTransactionException.class, e -> Mono.empty())
+            .then();
+    }
+}
@@ -1,5 +1,6 @@
 package com.github.ghrocs.service;
 
+import com.github.ghrocs.service.dto.BulkImportResultDTO;
 import com.github.ghrocs.service.dto.RegionDTO;
 import java.util.List;
 import reactor.core.publisher.Flux;
@@ -18,13 +19,33 @@ public interface RegionService {
     Mono<RegionDTO> save(RegionDTO regionDTO);
 
     /**
-     * Partially updates a region.
+     * Updates a region, in a single statement, unless it changed since the version of the DTO.
+     *
+     * @param regionDTO the entity to update, with the version it was read at.
+     * @return the persisted entity, empty if the region doesn't exist,
+     * or an {@link org.springframework.dao.OptimisticLockingFailureException} if it changed since its version.
+     */
+    Mono<RegionDTO> update(RegionDTO regionDTO);
+
+    /**
+     * Partially updates a region: only its fields, which aren't null in the DTO, are written. With the version of the DTO, the update is
+     * a single statement, which returns the updated row. Without it, this is the slow path: the region is read first, then updated at
+     * the version read, in two round trips.
      *
      * @param regionDTO the entity to update partially.
-     * @return the persisted entity.
+     * @return the persisted entity, empty if the region doesn't exist,
+     * or an {@link org.springframework.dao.OptimisticLockingFailureException} if it changed since its version.
      */
     Mono<RegionDTO> partialUpdate(RegionDTO regionDTO);
 
+    /**
+     * Imports new regions in batches.
+     *
+     * @param lines the lines of the import, with the regions to create.
+     * @return the result of every batch.
+     */
+    Flux<BulkImportResultDTO> importAll(Flux<BulkImportLine<RegionDTO>> lines);
+
     /**
      * Get all the regions.
      *
@@ -32,6 +53,14 @@ public interface RegionService {
      */
     Flux<RegionDTO> findAll();
 
+    /**
+     * Get the regions after the sort key of the keyset.
+     *
+     * @param keyset the keyset pagination information.
+     * @return the list of entities, with at most {@link Keyset#getLimit()} elements.
+     */
+    Flux<RegionDTO> findAll(Keyset keyset);
+
     /**
      * Returns the number of regions available.
      * @return the number of entities in the database.
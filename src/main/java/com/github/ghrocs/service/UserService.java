@@ -1,26 +1,40 @@
 package com.github.ghrocs.service;
 
+import com.github.ghrocs.config.ApplicationProperties;
 import com.github.ghrocs.config.Constants;
 import com.github.ghrocs.domain.Authority;
+import com.github.ghrocs.domain.OutboxMail;
 import com.github.ghrocs.domain.User;
+import com.github.ghrocs.domain.enumeration.MailTemplate;
 import com.github.ghrocs.repository.AuthorityRepository;
+import com.github.ghrocs.repository.OutboxMailRepository;
 import com.github.ghrocs.repository.UserRepository;
 import com.github.ghrocs.security.AuthoritiesConstants;
+import com.github.ghrocs.security.PasswordHashingScheduler;
 import com.github.ghrocs.security.SecurityUtils;
+import com.github.ghrocs.security.UserDetailsCache;
 import com.github.ghrocs.service.dto.AdminUserDTO;
 import com.github.ghrocs.service.dto.UserDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
@@ -30,7 +44,20 @@ import tech.jhipster.security.RandomUtil;
  * Service class for managing users.
  */
 @Service
-public class UserService {
+public class UserService implements ReactiveUserDetailsPasswordService {
+
+    public static final String PURGED_COUNTER = "users.purged";
+
+    public static final String PURGE_BATCH_TIMER = "users.purge.batches";
+
+    private static final String PURGE_JOB = "removeNotActivatedUsers";
+
+    /**
+     * The lease of the nightly cleanup is kept for a while, so the other instances skip it even with skewed clocks.
+     */
+    private static final Duration PURGE_LEASE_MIN = Duration.ofMinutes(5);
+
+    private static final Duration PURGE_LEASE_MAX = Duration.ofHours(1);
 
     private final Logger log = LoggerFactory.getLogger(UserService.class);
 
@@ -40,10 +67,45 @@ public class UserService {
 
     private final AuthorityRepository authorityRepository;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, AuthorityRepository authorityRepository) {
+    private final UserDetailsCache userDetailsCache;
+
+    private final PasswordHashingScheduler passwordHashingScheduler;
+
+    private final OutboxMailRepository outboxMailRepository;
+
+    private final TransactionalOperator transactionalOperator;
+
+    private final JobLeases jobLeases;
+
+    private final int purgeBatchSize;
+
+    private final Counter purged;
+
+    private final Timer purgeBatches;
+
+    public UserService(
+        UserRepository userRepository,
+        PasswordEncoder passwordEncoder,
+        AuthorityRepository authorityRepository,
+        UserDetailsCache userDetailsCache,
+        PasswordHashingScheduler passwordHashingScheduler,
+        OutboxMailRepository outboxMailRepository,
+        TransactionalOperator transactionalOperator,
+        JobLeases jobLeases,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.authorityRepository = authorityRepository;
+        this.userDetailsCache = userDetailsCache;
+        this.passwordHashingScheduler = passwordHashingScheduler;
+        this.outboxMailRepository = outboxMailRepository;
+        this.transactionalOperator = transactionalOperator;
+        this.jobLeases = jobLeases;
+        this.purgeBatchSize = applicationProperties.getDatabase().getPurgeBatchSize();
+        this.purged = meterRegistry.counter(PURGED_COUNTER);
+        this.purgeBatches = meterRegistry.timer(PURGE_BATCH_TIMER);
     }
 
     @Transactional
@@ -68,7 +130,7 @@ public class UserService {
         return userRepository
             .findOneByResetKey(key)
             .filter(user -> user.getResetDate().isAfter(Instant.now().minusSeconds(86400)))
-            .publishOn(Schedulers.boundedElastic())
+            .publishOn(passwordHashingScheduler.get())
             .map(
                 user -> {
                     user.setPassword(passwordEncoder.encode(newPassword));
@@ -93,7 +155,8 @@ public class UserService {
                     return user;
                 }
             )
-            .flatMap(this::saveUser);
+            .flatMap(this::saveUser)
+            .flatMap(user -> addToOutbox(user, MailTemplate.PASSWORD_RESET));
     }
 
     @Transactional
@@ -119,7 +182,7 @@ public class UserService {
                     }
                 }
             )
-            .publishOn(Schedulers.boundedElastic())
+            .publishOn(passwordHashingScheduler.get())
             .then(
                 Mono.fromCallable(
                     () -> {
@@ -151,7 +214,8 @@ public class UserService {
                         .map(authorities::add)
                         .thenReturn(newUser)
                         .doOnNext(user -> user.setAuthorities(authorities))
-                        .flatMap(this::saveUser)
+                        .flatMap(user -> saveUser(user, true))
+                        .flatMap(user -> addToOutbox(user, MailTemplate.ACTIVATION))
                         .doOnNext(user -> log.debug("Created Information for User: {}", user));
                 }
             );
@@ -177,7 +241,7 @@ public class UserService {
             .flatMap(authorityRepository::findById)
             .doOnNext(authority -> user.getAuthorities().add(authority))
             .then(Mono.just(user))
-            .publishOn(Schedulers.boundedElastic())
+            .publishOn(passwordHashingScheduler.get())
             .map(
                 newUser -> {
                     String encryptedPassword = passwordEncoder.encode(RandomUtil.generatePassword());
@@ -188,10 +252,18 @@ public class UserService {
                     return newUser;
                 }
             )
-            .flatMap(this::saveUser)
+            .flatMap(newUser -> saveUser(newUser, true))
+            .flatMap(newUser -> addToOutbox(newUser, MailTemplate.CREATION))
             .doOnNext(user1 -> log.debug("Created Information for User: {}", user1));
     }
 
+    /**
+     * Adds an email to the outbox, in the transaction of the user: it's sent by the {@link MailOutboxPoller} once committed.
+     */
+    private Mono<User> addToOutbox(User user, MailTemplate template) {
+        return outboxMailRepository.save(new OutboxMail().userId(user.getId()).template(template)).thenReturn(user);
+    }
+
     /**
      * Update all information for a specific user, and return the modified user.
      *
@@ -202,6 +274,8 @@ public class UserService {
     public Mono<AdminUserDTO> updateUser(AdminUserDTO userDTO) {
         return userRepository
             .findById(userDTO.getId())
+            // the login can be changed, its cached user is evicted before
+            .flatMap(user -> userDetailsCache.evict(user.getLogin()).thenReturn(user))
             .flatMap(
                 user -> {
                     user.setLogin(userDTO.getLogin().toLowerCase());
@@ -215,15 +289,14 @@ public class UserService {
                     user.setLangKey(userDTO.getLangKey());
                     Set<Authority> managedAuthorities = user.getAuthorities();
                     managedAuthorities.clear();
-                    return userRepository
-                        .deleteUserAuthorities(user.getId())
-                        .thenMany(Flux.fromIterable(userDTO.getAuthorities()))
+                    return Flux
+                        .fromIterable(userDTO.getAuthorities())
                         .flatMap(authorityRepository::findById)
                         .map(managedAuthorities::add)
                         .then(Mono.just(user));
                 }
             )
-            .flatMap(this::saveUser)
+            .flatMap(user -> saveUser(user, true))
             .doOnNext(user -> log.debug("Changed Information for User: {}", user))
             .map(AdminUserDTO::new);
     }
@@ -232,7 +305,7 @@ public class UserService {
     public Mono<Void> deleteUser(String login) {
         return userRepository
             .findOneByLogin(login)
-            .flatMap(user -> userRepository.delete(user).thenReturn(user))
+            .flatMap(user -> userRepository.delete(user).then(userDetailsCache.evict(user.getLogin())).thenReturn(user))
             .doOnNext(user -> log.debug("Deleted User: {}", user))
             .then();
     }
@@ -270,6 +343,19 @@ public class UserService {
 
     @Transactional
     public Mono<User> saveUser(User user) {
+        return saveUser(user, false);
+    }
+
+    /**
+     * Saves the user, and its authorities when {@code forceSaveAuthority} is true: only the authorities, which were granted or revoked,
+     * are written. The user is evicted from the {@link UserDetailsCache}.
+     *
+     * @param user the user to save.
+     * @param forceSaveAuthority whether the authorities of the user were loaded or changed, and have to be saved.
+     * @return the saved user.
+     */
+    @Transactional
+    public Mono<User> saveUser(User user, boolean forceSaveAuthority) {
         return SecurityUtils
             .getCurrentUserLogin()
             .switchIfEmpty(Mono.just(Constants.SYSTEM))
@@ -281,25 +367,54 @@ public class UserService {
                     user.setLastModifiedBy(login);
                     // Saving the relationship can be done in an entity callback
                     // once https://github.com/spring-projects/spring-data-r2dbc/issues/215 is done
-                    return userRepository
-                        .save(user)
-                        .flatMap(
-                            savedUser ->
-                                Flux
-                                    .fromIterable(user.getAuthorities())
-                                    .flatMap(authority -> userRepository.saveUserAuthority(savedUser.getId(), authority.getName()))
-                                    .then(Mono.just(savedUser))
-                        );
+                    Mono<User> persistedUser = userRepository.save(user);
+                    if (forceSaveAuthority) {
+                        persistedUser =
+                            persistedUser.flatMap(
+                                savedUser ->
+                                    userRepository
+                                        .updateUserAuthorities(
+                                            savedUser.getId(),
+                                            user.getAuthorities().stream().map(Authority::getName).collect(Collectors.toList())
+                                        )
+                                        .thenReturn(savedUser)
+                            );
+                    }
+                    return persistedUser.flatMap(savedUser -> userDetailsCache.evict(savedUser.getLogin()).thenReturn(savedUser));
                 }
             );
     }
 
+    /**
+     * Saves the password of a user, which was hashed again with the current strength once the user authenticated.
+     *
+     * @param userDetails the authenticated user.
+     * @param newEncodedPassword the new hash of the password.
+     * @return the user, with the new hash.
+     */
+    @Override
+    @Transactional
+    public Mono<UserDetails> updatePassword(UserDetails userDetails, String newEncodedPassword) {
+        return userRepository
+            .findOneByLogin(userDetails.getUsername())
+            .flatMap(
+                user -> {
+                    user.setPassword(newEncodedPassword);
+                    return saveUser(user);
+                }
+            )
+            .doOnNext(user -> log.debug("Upgraded the password hash of User: {}", user.getLogin()))
+            .thenReturn(
+                org.springframework.security.core.userdetails.User.withUserDetails(userDetails).password(newEncodedPassword).build()
+            );
+    }
+
     @Transactional
     public Mono<Void> changePassword(String currentClearTextPassword, String newPassword) {
         return SecurityUtils
             .getCurrentUserLogin()
             .flatMap(userRepository::findOneByLogin)
-            .publishOn(Schedulers.boundedElastic())
+            .publishOn(passwordHashingScheduler.get())
             .map(
                 user -> {
                     String currentEncryptedPassword = user.getPassword();
@@ -326,6 +441,21 @@ public class UserService {
         return userRepository.findAllByIdNotNullAndActivatedIsTrue(pageable).map(UserDTO::new);
     }
 
+    @Transactional(readOnly = true)
+    public Flux<AdminUserDTO> getAllManagedUsers() {
+        return userRepository.streamAllWithAuthorities().map(AdminUserDTO::new);
+    }
+
+    @Transactional(readOnly = true)
+    public Flux<AdminUserDTO> getAllManagedUsers(Keyset keyset) {
+        return userRepository.findAllWithAuthorities(keyset).map(AdminUserDTO::new);
+    }
+
+    @Transactional(readOnly = true)
+    public Flux<UserDTO> getAllPublicUsers(Keyset keyset) {
+        return userRepository.findAllActivatedBy(keyset).map(UserDTO::new);
+    }
+
     @Transactional(readOnly = true)
     public Mono<Long> countManagedUsers() {
         return userRepository.count();
@@ -344,21 +474,49 @@ public class UserService {
     /**
      * Not activated users should be automatically deleted after 3 days.
      * <p>
-     * This is scheduled to get fired everyday, at 01:00 (am).
+     * This is scheduled to get fired everyday, at 01:00 (am), and runs on a single instance of the cluster.
      */
     @Scheduled(cron = "0 0 1 * * ?")
     public void removeNotActivatedUsers() {
-        removeNotActivatedUsersReactively().blockLast();
+        jobLeases
+            .runExclusively(PURGE_JOB, PURGE_LEASE_MAX, PURGE_LEASE_MIN, removeNotActivatedUsersReactively())
+            .subscribe(
+                count -> log.info("Deleted {} not activated users", count),
+                e -> log.error("Could not delete the not activated users", e)
+            );
     }
 
-    @Transactional
-    public Flux<User> removeNotActivatedUsersReactively() {
-        return userRepository
-            .findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(
-                LocalDateTime.ofInstant(Instant.now().minus(3, ChronoUnit.DAYS), ZoneOffset.UTC)
-            )
-            .flatMap(user -> userRepository.delete(user).thenReturn(user))
-            .doOnNext(user -> log.debug("Deleted User: {}", user));
+    /**
+     * Deletes the not activated users in batches of {@code application.database.purge-batch-size}, each in its own transaction.
+     * <p>
+     * The deleted users are counted by the {@code users.purged} metric, and the duration of a batch by the {@code users.purge.batches}
+     * timer.
+     *
+     * @return the number of deleted users.
+     */
+    public Mono<Long> removeNotActivatedUsersReactively() {
+        LocalDateTime createdBefore = LocalDateTime.ofInstant(Instant.now().minus(3, ChronoUnit.DAYS), ZoneOffset.UTC);
+        return removeNotActivatedUsers(createdBefore)
+            // a full batch may be followed by another one
+            .expand(deleted -> deleted < purgeBatchSize ? Mono.empty() : removeNotActivatedUsers(createdBefore))
+            .reduce(0L, Long::sum);
+    }
+
+    private Mono<Integer> removeNotActivatedUsers(LocalDateTime createdBefore) {
+        return Mono.defer(
+            () -> {
+                Timer.Sample sample = Timer.start();
+                return transactionalOperator
+                    .transactional(userRepository.deleteNotActivatedCreatedBefore(createdBefore, purgeBatchSize))
+                    .doOnNext(
+                        deleted -> {
+                            sample.stop(purgeBatches);
+                            purged.increment(deleted);
+                            log.debug("Deleted a batch of {} not activated users", deleted);
+                        }
+                    );
+            }
+        );
     }
 
     /**
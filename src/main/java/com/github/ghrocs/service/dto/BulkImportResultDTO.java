@@ -0,0 +1,84 @@
+package com.github.ghrocs.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO for the result of a batch of a bulk import.
+ */
+public class BulkImportResultDTO implements Serializable {
+
+    private long batch;
+
+    private long firstLine;
+
+    private long lastLine;
+
+    private int imported;
+
+    private int rejected;
+
+    private List<String> errors = new ArrayList<>();
+
+    public long getBatch() {
+        return batch;
+    }
+
+    public void setBatch(long batch) {
+        this.batch = batch;
+    }
+
+    public long getFirstLine() {
+        return firstLine;
+    }
+
+    public void setFirstLine(long firstLine) {
+        this.firstLine = firstLine;
+    }
+
+    public long getLastLine() {
+        return lastLine;
+    }
+
+    public void setLastLine(long lastLine) {
+        this.lastLine = lastLine;
+    }
+
+    public int getImported() {
+        return imported;
+    }
+
+    public void setImported(int imported) {
+        this.imported = imported;
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(int rejected) {
+        this.rejected = rejected;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<String> errors) {
+        this.errors = errors;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BulkImportResultDTO{" +
+            "batch=" + getBatch() +
+            ", firstLine=" + getFirstLine() +
+            ", lastLine=" + getLastLine() +
+            ", imported=" + getImported() +
+            ", rejected=" + getRejected() +
+            ", errors=" + getErrors() +
+            "}";
+    }
+}
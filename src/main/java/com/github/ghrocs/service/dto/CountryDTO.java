@@ -19,6 +19,8 @@ public class CountryDTO implements Serializable {
 
     private RegionDTO region;
 
+    private Long version;
+
     public Long getId() {
         return id;
     }
@@ -51,6 +53,14 @@ public class CountryDTO implements Serializable {
         this.region = region;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -80,6 +90,7 @@ public class CountryDTO implements Serializable {
             ", countryName='" + getCountryName() + "'" +
             ", language='" + getLanguage() + "'" +
             ", region=" + getRegion() +
+            ", version=" + getVersion() +
             "}";
     }
 }
@@ -14,6 +14,8 @@ public class RegionDTO implements Serializable {
 
     private String regionName;
 
+    private Long version;
+
     public Long getId() {
         return id;
     }
@@ -30,6 +32,14 @@ public class RegionDTO implements Serializable {
         this.regionName = regionName;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -57,6 +67,7 @@ public class RegionDTO implements Serializable {
         return "RegionDTO{" +
             "id=" + getId() +
             ", regionName='" + getRegionName() + "'" +
+            ", version=" + getVersion() +
             "}";
     }
 }
@@ -1,14 +1,24 @@
 package com.github.ghrocs.service.impl;
 
+import com.github.ghrocs.config.ApplicationProperties;
 import com.github.ghrocs.domain.Country;
+import com.github.ghrocs.domain.Region;
 import com.github.ghrocs.repository.CountryRepository;
+import com.github.ghrocs.service.BulkImportLine;
+import com.github.ghrocs.service.BulkImporter;
 import com.github.ghrocs.service.CountryService;
+import com.github.ghrocs.service.Keyset;
+import com.github.ghrocs.service.ReactiveCache;
+import com.github.ghrocs.service.dto.BulkImportResultDTO;
 import com.github.ghrocs.service.dto.CountryDTO;
 import com.github.ghrocs.service.mapper.CountryMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -20,39 +30,84 @@ import reactor.core.publisher.Mono;
 @Transactional
 public class CountryServiceImpl implements CountryService {
 
+    private static final String COUNTRY_CACHE = "countries";
+
     private final Logger log = LoggerFactory.getLogger(CountryServiceImpl.class);
 
     private final CountryRepository countryRepository;
 
     private final CountryMapper countryMapper;
 
-    public CountryServiceImpl(CountryRepository countryRepository, CountryMapper countryMapper) {
+    private final BulkImporter bulkImporter;
+
+    private final ReactiveCache<Long, Country> countryCache;
+
+    public CountryServiceImpl(
+        CountryRepository countryRepository,
+        CountryMapper countryMapper,
+        BulkImporter bulkImporter,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
         this.countryRepository = countryRepository;
         this.countryMapper = countryMapper;
+        this.bulkImporter = bulkImporter;
+        ApplicationProperties.Cache.ReferenceData cacheProperties = applicationProperties.getCache().getReferenceData();
+        this.countryCache =
+            new ReactiveCache<>(COUNTRY_CACHE, cacheProperties.getMaximumSize(), cacheProperties.getTimeToLive(), meterRegistry);
     }
 
     @Override
     public Mono<CountryDTO> save(CountryDTO countryDTO) {
         log.debug("Request to save Country : {}", countryDTO);
-        return countryRepository.save(countryMapper.toEntity(countryDTO)).map(countryMapper::toDto);
+        return countryRepository.save(countryMapper.toEntity(countryDTO)).flatMap(this::invalidate).map(countryMapper::toDto);
+    }
+
+    @Override
+    public Mono<CountryDTO> update(CountryDTO countryDTO) {
+        log.debug("Request to update Country : {}", countryDTO);
+        Country country = countryMapper.toEntity(countryDTO);
+        return countryRepository
+            .update(country)
+            .flatMap(numberOfUpdates -> numberOfUpdates > 0 ? Mono.just(country) : failedUpdate(country))
+            .flatMap(this::invalidate)
+            .map(countryMapper::toDto);
     }
 
     @Override
     public Mono<CountryDTO> partialUpdate(CountryDTO countryDTO) {
         log.debug("Request to partially update Country : {}", countryDTO);
 
+        // only the fields of the patch are written, at the version the client read, in a single statement
+        if (countryDTO.getVersion() != null) {
+            Country patch = countryMapper.toEntity(countryDTO);
+            return countryRepository
+                .updateNonNullFields(patch)
+                .switchIfEmpty(Mono.defer(() -> failedUpdate(patch)))
+                .flatMap(this::invalidate)
+                .map(countryMapper::toDto);
+        }
+        // the slow path, without the version: the country is read first, and patched at the version read
         return countryRepository
             .findById(countryDTO.getId())
-            .map(
+            .flatMap(
                 existingCountry -> {
-                    countryMapper.partialUpdate(existingCountry, countryDTO);
-                    return existingCountry;
+                    Country patch = countryMapper.toEntity(countryDTO).version(existingCountry.getVersion());
+                    return countryRepository.updateNonNullFields(patch).switchIfEmpty(Mono.defer(() -> failedUpdate(patch)));
                 }
             )
-            .flatMap(countryRepository::save)
+            .flatMap(this::invalidate)
             .map(countryMapper::toDto);
     }
 
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Flux<BulkImportResultDTO> importAll(Flux<BulkImportLine<CountryDTO>> lines) {
+        log.debug("Request to import Countries");
+        // every batch is written in its own transaction by the bulk importer
+        return bulkImporter.importAll(lines, CountryDTO::getId, countryMapper::toEntity);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Flux<CountryDTO> findAll(Pageable pageable) {
@@ -60,6 +115,20 @@ public class CountryServiceImpl implements CountryService {
         return countryRepository.findAllBy(pageable).map(countryMapper::toDto);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<CountryDTO> findAll() {
+        log.debug("Request to get all Countries");
+        return countryRepository.findAll().map(countryMapper::toDto);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<CountryDTO> findAll(Keyset keyset) {
+        log.debug("Request to get Countries : {}", keyset);
+        return countryRepository.findAllBy(keyset).map(countryMapper::toDto);
+    }
+
     public Mono<Long> countAll() {
         return countryRepository.count();
     }
@@ -68,12 +137,46 @@ public class CountryServiceImpl implements CountryService {
     @Transactional(readOnly = true)
     public Mono<CountryDTO> findOne(Long id) {
         log.debug("Request to get Country : {}", id);
-        return countryRepository.findById(id).map(countryMapper::toDto);
+        return countryCache
+            .get(id, key -> countryRepository.findById(key).map(CountryServiceImpl::withoutJoinedRegion))
+            .map(countryMapper::toDto);
     }
 
     @Override
     public Mono<Void> delete(Long id) {
         log.debug("Request to delete Country : {}", id);
-        return countryRepository.deleteById(id);
+        return countryRepository.deleteById(id).then(countryCache.invalidate(id));
+    }
+
+    /**
+     * Tells a country, which doesn't exist, from one, which changed since its version: only the updates, which failed, pay the query.
+     */
+    private Mono<Country> failedUpdate(Country country) {
+        return countryRepository
+            .existsById(country.getId())
+            .flatMap(
+                exists ->
+                    exists
+                        ? Mono.error(
+                            new OptimisticLockingFailureException(
+                                "Country with id = " + country.getId() + " changed since the version " + country.getVersion()
+                            )
+                        )
+                        : Mono.empty()
+            );
+    }
+
+    /**
+     * Keeps only the id of the region, which is all the DTO exposes: the writes of the regions don't invalidate the cached countries.
+     */
+    private static Country withoutJoinedRegion(Country country) {
+        if (country.getRegion() != null) {
+            country.setRegion(new Region().id(country.getRegionId()));
+        }
+        return country;
+    }
+
+    private Mono<Country> invalidate(Country country) {
+        return countryCache.invalidate(country.getId()).thenReturn(country);
     }
 }
@@ -1,16 +1,26 @@
 package com.github.ghrocs.service.impl;
 
+import com.github.ghrocs.config.ApplicationProperties;
 import com.github.ghrocs.domain.Region;
 import com.github.ghrocs.repository.RegionRepository;
+import com.github.ghrocs.service.BulkImportLine;
+import com.github.ghrocs.service.BulkImporter;
+import com.github.ghrocs.service.Keyset;
+import com.github.ghrocs.service.ReactiveCache;
 import com.github.ghrocs.service.RegionService;
+import com.github.ghrocs.service.dto.BulkImportResultDTO;
 import com.github.ghrocs.service.dto.RegionDTO;
 import com.github.ghrocs.service.mapper.RegionMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -22,44 +32,108 @@ import reactor.core.publisher.Mono;
 @Transactional
 public class RegionServiceImpl implements RegionService {
 
+    private static final String REGION_CACHE = "regions";
+
+    private static final String ALL_REGIONS_CACHE = "regions.all";
+
+    private static final String ALL_REGIONS = "all";
+
     private final Logger log = LoggerFactory.getLogger(RegionServiceImpl.class);
 
     private final RegionRepository regionRepository;
 
     private final RegionMapper regionMapper;
 
-    public RegionServiceImpl(RegionRepository regionRepository, RegionMapper regionMapper) {
+    private final BulkImporter bulkImporter;
+
+    private final ReactiveCache<Long, Region> regionCache;
+
+    private final ReactiveCache<String, List<Region>> allRegionsCache;
+
+    public RegionServiceImpl(
+        RegionRepository regionRepository,
+        RegionMapper regionMapper,
+        BulkImporter bulkImporter,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
         this.regionRepository = regionRepository;
         this.regionMapper = regionMapper;
+        this.bulkImporter = bulkImporter;
+        ApplicationProperties.Cache.ReferenceData cacheProperties = applicationProperties.getCache().getReferenceData();
+        this.regionCache =
+            new ReactiveCache<>(REGION_CACHE, cacheProperties.getMaximumSize(), cacheProperties.getTimeToLive(), meterRegistry);
+        this.allRegionsCache = new ReactiveCache<>(ALL_REGIONS_CACHE, 1, cacheProperties.getTimeToLive(), meterRegistry);
     }
 
     @Override
     public Mono<RegionDTO> save(RegionDTO regionDTO) {
         log.debug("Request to save Region : {}", regionDTO);
-        return regionRepository.save(regionMapper.toEntity(regionDTO)).map(regionMapper::toDto);
+        return regionRepository.save(regionMapper.toEntity(regionDTO)).flatMap(this::invalidate).map(regionMapper::toDto);
+    }
+
+    @Override
+    public Mono<RegionDTO> update(RegionDTO regionDTO) {
+        log.debug("Request to update Region : {}", regionDTO);
+        Region region = regionMapper.toEntity(regionDTO);
+        return regionRepository
+            .update(region)
+            .flatMap(numberOfUpdates -> numberOfUpdates > 0 ? Mono.just(region) : failedUpdate(region))
+            .flatMap(this::invalidate)
+            .map(regionMapper::toDto);
     }
 
     @Override
     public Mono<RegionDTO> partialUpdate(RegionDTO regionDTO) {
         log.debug("Request to partially update Region : {}", regionDTO);
 
+        // only the fields of the patch are written, at the version the client read, in a single statement
+        if (regionDTO.getVersion() != null) {
+            Region patch = regionMapper.toEntity(regionDTO);
+            return regionRepository
+                .updateNonNullFields(patch)
+                .switchIfEmpty(Mono.defer(() -> failedUpdate(patch)))
+                .flatMap(this::invalidate)
+                .map(regionMapper::toDto);
+        }
+        // the slow path, without the version: the region is read first, and patched at the version read
         return regionRepository
             .findById(regionDTO.getId())
-            .map(
+            .flatMap(
                 existingRegion -> {
-                    regionMapper.partialUpdate(existingRegion, regionDTO);
-                    return existingRegion;
+                    Region patch = regionMapper.toEntity(regionDTO).version(existingRegion.getVersion());
+                    return regionRepository.updateNonNullFields(patch).switchIfEmpty(Mono.defer(() -> failedUpdate(patch)));
                 }
             )
-            .flatMap(regionRepository::save)
+            .flatMap(this::invalidate)
             .map(regionMapper::toDto);
     }
 
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Flux<BulkImportResultDTO> importAll(Flux<BulkImportLine<RegionDTO>> lines) {
+        log.debug("Request to import Regions");
+        // every batch is written in its own transaction by the bulk importer
+        return bulkImporter
+            .importAll(lines, RegionDTO::getId, regionMapper::toEntity)
+            .concatWith(allRegionsCache.invalidateAll().then(Mono.empty()));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Flux<RegionDTO> findAll() {
         log.debug("Request to get all Regions");
-        return regionRepository.findAll().map(regionMapper::toDto);
+        return allRegionsCache
+            .get(ALL_REGIONS, key -> regionRepository.findAll().collectList())
+            .flatMapIterable(Function.identity())
+            .map(regionMapper::toDto);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<RegionDTO> findAll(Keyset keyset) {
+        log.debug("Request to get Regions : {}", keyset);
+        return regionRepository.findAllBy(keyset).map(regionMapper::toDto);
     }
 
     public Mono<Long> countAll() {
@@ -70,12 +144,34 @@ public class RegionServiceImpl implements RegionService {
     @Transactional(readOnly = true)
     public Mono<RegionDTO> findOne(Long id) {
         log.debug("Request to get Region : {}", id);
-        return regionRepository.findById(id).map(regionMapper::toDto);
+        return regionCache.get(id, regionRepository::findById).map(regionMapper::toDto);
     }
 
     @Override
     public Mono<Void> delete(Long id) {
         log.debug("Request to delete Region : {}", id);
-        return regionRepository.deleteById(id);
+        return regionRepository.deleteById(id).then(regionCache.invalidate(id)).then(allRegionsCache.invalidateAll());
+    }
+
+    /**
+     * Tells a region, which doesn't exist, from one, which changed since its version: only the updates, which failed, pay the query.
+     */
+    private Mono<Region> failedUpdate(Region region) {
+        return regionRepository
+            .existsById(region.getId())
+            .flatMap(
+                exists ->
+                    exists
+                        ? Mono.error(
+                            new OptimisticLockingFailureException(
+                                "Region with id = " + region.getId() + " changed since the version " + region.getVersion()
+                            )
+                        )
+                        : Mono.empty()
+            );
+    }
+
+    private Mono<Region> invalidate(Region region) {
+        return regionCache.invalidate(region.getId()).then(allRegionsCache.invalidateAll()).thenReturn(region);
     }
 }
@@ -2,7 +2,6 @@ package com.github.ghrocs.web.rest;
 
 import com.github.ghrocs.repository.UserRepository;
 import com.github.ghrocs.security.SecurityUtils;
-import com.github.ghrocs.service.MailService;
 import com.github.ghrocs.service.UserService;
 import com.github.ghrocs.service.dto.AdminUserDTO;
 import com.github.ghrocs.service.dto.PasswordChangeDTO;
@@ -41,12 +40,9 @@ public class AccountResource {
 
     private final UserService userService;
 
-    private final MailService mailService;
-
-    public AccountResource(UserRepository userRepository, UserService userService, MailService mailService) {
+    public AccountResource(UserRepository userRepository, UserService userService) {
         this.userRepository = userRepository;
         this.userService = userService;
-        this.mailService = mailService;
     }
 
     /**
@@ -63,7 +59,7 @@ public class AccountResource {
         if (isPasswordLengthInvalid(managedUserVM.getPassword())) {
             throw new InvalidPasswordException();
         }
-        return userService.registerUser(managedUserVM, managedUserVM.getPassword()).doOnSuccess(mailService::sendActivationEmail).then();
+        return userService.registerUser(managedUserVM, managedUserVM.getPassword()).then();
     }
 
     /**
@@ -171,9 +167,8 @@ public class AccountResource {
             .requestPasswordReset(mail)
             .doOnSuccess(
                 user -> {
-                    if (Objects.nonNull(user)) {
-                        mailService.sendPasswordResetMail(user);
-                    } else {
+                    // the email is sent from the outbox
+                    if (Objects.isNull(user)) {
                         // Pretend the request has been successful to prevent checking which emails really exist
                         // but log that an invalid attempt has been made
                         log.warn("Password reset requested for non existing mail");
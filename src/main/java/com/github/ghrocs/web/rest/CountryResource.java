@@ -1,18 +1,27 @@
 package com.github.ghrocs.web.rest;
 
-import com.github.ghrocs.repository.CountryRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.ghrocs.domain.Country;
+import com.github.ghrocs.security.AuthoritiesConstants;
+import com.github.ghrocs.service.EntityManager;
 import com.github.ghrocs.service.CountryService;
+import com.github.ghrocs.service.Keyset;
+import com.github.ghrocs.service.dto.BulkImportResultDTO;
 import com.github.ghrocs.service.dto.CountryDTO;
 import com.github.ghrocs.web.rest.errors.BadRequestAlertException;
+import com.github.ghrocs.web.util.BulkImportUtil;
+import com.github.ghrocs.web.util.KeysetPaginationUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
@@ -21,6 +30,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.util.UriComponentsBuilder;
@@ -46,11 +56,14 @@ public class CountryResource {
 
     private final CountryService countryService;
 
-    private final CountryRepository countryRepository;
+    private final ObjectMapper objectMapper;
 
-    public CountryResource(CountryService countryService, CountryRepository countryRepository) {
+    private final Set<String> sortableProperties;
+
+    public CountryResource(CountryService countryService, ObjectMapper objectMapper, EntityManager entityManager) {
         this.countryService = countryService;
-        this.countryRepository = countryRepository;
+        this.objectMapper = objectMapper;
+        this.sortableProperties = entityManager.getColumnProperties(Country.class);
     }
 
     /**
@@ -88,7 +101,8 @@ public class CountryResource {
      * @param id the id of the countryDTO to save.
      * @param countryDTO the countryDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated countryDTO,
-     * or with status {@code 400 (Bad Request)} if the countryDTO is not valid,
+     * or with status {@code 400 (Bad Request)} if the countryDTO is not valid, has no version or is not found,
+     * or with status {@code 409 (Conflict)} if the country changed since the version of the countryDTO,
      * or with status {@code 500 (Internal Server Error)} if the countryDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
@@ -104,39 +118,34 @@ public class CountryResource {
         if (!Objects.equals(id, countryDTO.getId())) {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
+        if (countryDTO.getVersion() == null) {
+            throw new BadRequestAlertException("Invalid version", ENTITY_NAME, "versionnull");
+        }
 
-        return countryRepository
-            .existsById(id)
-            .flatMap(
-                exists -> {
-                    if (!exists) {
-                        return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                    }
-
-                    return countryService
-                        .save(countryDTO)
-                        .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                        .map(
-                            result ->
-                                ResponseEntity
-                                    .ok()
-                                    .headers(
-                                        HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, result.getId().toString())
-                                    )
-                                    .body(result)
-                        );
-                }
+        return countryService
+            .update(countryDTO)
+            .switchIfEmpty(Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound")))
+            .map(
+                result ->
+                    ResponseEntity
+                        .ok()
+                        .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, result.getId().toString()))
+                        .body(result)
             );
     }
 
     /**
      * {@code PATCH  /countries/:id} : Partial updates given fields of an existing country, field will ignore if it is null
      *
+     * The countryDTO should carry the version it was read at, so the country is patched in a single statement: without it, the country
+     * is read first.
+     *
      * @param id the id of the countryDTO to save.
      * @param countryDTO the countryDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated countryDTO,
      * or with status {@code 400 (Bad Request)} if the countryDTO is not valid,
      * or with status {@code 404 (Not Found)} if the countryDTO is not found,
+     * or with status {@code 409 (Conflict)} if the country changed since the version of the countryDTO, when it's given,
      * or with status {@code 500 (Internal Server Error)} if the countryDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
@@ -153,29 +162,42 @@ public class CountryResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        return countryRepository
-            .existsById(id)
-            .flatMap(
-                exists -> {
-                    if (!exists) {
-                        return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                    }
-
-                    Mono<CountryDTO> result = countryService.partialUpdate(countryDTO);
-
-                    return result
-                        .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                        .map(
-                            res ->
-                                ResponseEntity
-                                    .ok()
-                                    .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, res.getId().toString()))
-                                    .body(res)
-                        );
-                }
+        return countryService
+            .partialUpdate(countryDTO)
+            .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
+            .map(
+                result ->
+                    ResponseEntity
+                        .ok()
+                        .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, result.getId().toString()))
+                        .body(result)
             );
     }
 
+    /**
+     * {@code POST  /countries/bulk} : Create countries in bulk.
+     * <p>
+     * The body is read as it is received, as {@code application/x-ndjson} or {@code text/csv}, and the countries are written in batches,
+     * each one in its own transaction. The result of every batch is streamed back as soon as it's written.
+     *
+     * @param contentType the content type of the body.
+     * @param body the countries to create.
+     * @return the result of every batch, or with status {@code 415 (Unsupported Media Type)} if the format isn't supported.
+     */
+    @PostMapping(
+        value = "/countries/bulk",
+        consumes = { MediaType.APPLICATION_NDJSON_VALUE, BulkImportUtil.TEXT_CSV_VALUE },
+        produces = MediaType.APPLICATION_NDJSON_VALUE
+    )
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public Flux<BulkImportResultDTO> importCountries(
+        @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+        @RequestBody Flux<DataBuffer> body
+    ) {
+        log.debug("REST request to import Countries : {}", contentType);
+        return countryService.importAll(BulkImportUtil.readLines(contentType, body, CountryDTO.class, objectMapper));
+    }
+
     /**
      * {@code GET  /countries} : get all the countries.
      *
@@ -204,6 +226,43 @@ public class CountryResource {
             );
     }
 
+    /**
+     * {@code GET  /countries} : get all the countries as a stream.
+     * @return the {@link Flux} of countries.
+     */
+    @GetMapping(value = "/countries", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<CountryDTO> getAllCountriesAsStream() {
+        log.debug("REST request to get all Countries as a stream");
+        return countryService.findAll();
+    }
+
+    /**
+     * {@code GET  /countries?after=} : get a page of the countries with keyset pagination.
+     *
+     * @param pageable the page size and the sort.
+     * @param after the cursor of the previous page, or empty for the first page.
+     * @param total whether to count all the countries.
+     * @param request a {@link ServerHttpRequest} request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of countries in body.
+     */
+    @GetMapping(value = "/countries", params = KeysetPaginationUtil.AFTER_PARAMETER)
+    public Mono<ResponseEntity<List<CountryDTO>>> getCountriesAfter(
+        Pageable pageable,
+        @RequestParam(KeysetPaginationUtil.AFTER_PARAMETER) String after,
+        @RequestParam(value = KeysetPaginationUtil.TOTAL_PARAMETER, defaultValue = "false") boolean total,
+        ServerHttpRequest request
+    ) {
+        log.debug("REST request to get a keyset page of Countries");
+        Keyset keyset = KeysetPaginationUtil.getKeyset(pageable, after, CountryDTO.class, sortableProperties, objectMapper);
+        return KeysetPaginationUtil.createKeysetResponse(
+            UriComponentsBuilder.fromHttpRequest(request),
+            keyset,
+            countryService.findAll(keyset),
+            total ? countryService.countAll() : Mono.empty(),
+            objectMapper
+        );
+    }
+
     /**
      * {@code GET  /countries/:id} : get the "id" country.
      *
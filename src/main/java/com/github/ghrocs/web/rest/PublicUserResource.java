@@ -1,7 +1,10 @@
 package com.github.ghrocs.web.rest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.ghrocs.service.Keyset;
 import com.github.ghrocs.service.UserService;
 import com.github.ghrocs.service.dto.UserDTO;
+import com.github.ghrocs.web.util.KeysetPaginationUtil;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -33,8 +36,11 @@ public class PublicUserResource {
 
     private final UserService userService;
 
-    public PublicUserResource(UserService userService) {
+    private final ObjectMapper objectMapper;
+
+    public PublicUserResource(UserService userService, ObjectMapper objectMapper) {
         this.userService = userService;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -58,6 +64,38 @@ public class PublicUserResource {
             .map(headers -> ResponseEntity.ok().headers(headers).body(userService.getAllPublicUsers(pageable)));
     }
 
+    /**
+     * {@code GET /users?after=} : get a page of users with only the public informations with keyset pagination - calling this are allowed
+     * for anyone. Only the public properties can be sorted on.
+     *
+     * @param request a {@link ServerHttpRequest} request.
+     * @param pageable the page size and the sort.
+     * @param after the cursor of the previous page, or empty for the first page.
+     * @param total whether to count all the users.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the users of the page.
+     */
+    @GetMapping(value = "/users", params = KeysetPaginationUtil.AFTER_PARAMETER)
+    public Mono<ResponseEntity<List<UserDTO>>> getPublicUsersAfter(
+        ServerHttpRequest request,
+        Pageable pageable,
+        @RequestParam(KeysetPaginationUtil.AFTER_PARAMETER) String after,
+        @RequestParam(value = KeysetPaginationUtil.TOTAL_PARAMETER, defaultValue = "false") boolean total
+    ) {
+        log.debug("REST request to get a keyset page of public User names");
+        if (!onlyContainsAllowedProperties(pageable)) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+
+        Keyset keyset = KeysetPaginationUtil.getKeyset(pageable, after, UserDTO.class, ALLOWED_ORDERED_PROPERTIES, objectMapper);
+        return KeysetPaginationUtil.createKeysetResponse(
+            UriComponentsBuilder.fromHttpRequest(request),
+            keyset,
+            userService.getAllPublicUsers(keyset),
+            total ? userService.countManagedUsers() : Mono.empty(),
+            objectMapper
+        );
+    }
+
     private boolean onlyContainsAllowedProperties(Pageable pageable) {
         return pageable.getSort().stream().map(Sort.Order::getProperty).allMatch(ALLOWED_ORDERED_PROPERTIES::contains);
     }
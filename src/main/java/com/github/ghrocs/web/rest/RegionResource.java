@@ -1,22 +1,36 @@
 package com.github.ghrocs.web.rest;
 
-import com.github.ghrocs.repository.RegionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.ghrocs.domain.Region;
+import com.github.ghrocs.security.AuthoritiesConstants;
+import com.github.ghrocs.service.EntityManager;
+import com.github.ghrocs.service.Keyset;
 import com.github.ghrocs.service.RegionService;
+import com.github.ghrocs.service.dto.BulkImportResultDTO;
 import com.github.ghrocs.service.dto.RegionDTO;
 import com.github.ghrocs.web.rest.errors.BadRequestAlertException;
+import com.github.ghrocs.web.util.BulkImportUtil;
+import com.github.ghrocs.web.util.KeysetPaginationUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.UriComponentsBuilder;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import tech.jhipster.web.util.HeaderUtil;
@@ -38,11 +52,14 @@ public class RegionResource {
 
     private final RegionService regionService;
 
-    private final RegionRepository regionRepository;
+    private final ObjectMapper objectMapper;
 
-    public RegionResource(RegionService regionService, RegionRepository regionRepository) {
+    private final Set<String> sortableProperties;
+
+    public RegionResource(RegionService regionService, ObjectMapper objectMapper, EntityManager entityManager) {
         this.regionService = regionService;
-        this.regionRepository = regionRepository;
+        this.objectMapper = objectMapper;
+        this.sortableProperties = entityManager.getColumnProperties(Region.class);
     }
 
     /**
@@ -80,7 +97,8 @@ public class RegionResource {
      * @param id the id of the regionDTO to save.
      * @param regionDTO the regionDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated regionDTO,
-     * or with status {@code 400 (Bad Request)} if the regionDTO is not valid,
+     * or with status {@code 400 (Bad Request)} if the regionDTO is not valid, has no version or is not found,
+     * or with status {@code 409 (Conflict)} if the region changed since the version of the regionDTO,
      * or with status {@code 500 (Internal Server Error)} if the regionDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
@@ -96,39 +114,34 @@ public class RegionResource {
         if (!Objects.equals(id, regionDTO.getId())) {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
+        if (regionDTO.getVersion() == null) {
+            throw new BadRequestAlertException("Invalid version", ENTITY_NAME, "versionnull");
+        }
 
-        return regionRepository
-            .existsById(id)
-            .flatMap(
-                exists -> {
-                    if (!exists) {
-                        return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                    }
-
-                    return regionService
-                        .save(regionDTO)
-                        .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                        .map(
-                            result ->
-                                ResponseEntity
-                                    .ok()
-                                    .headers(
-                                        HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, result.getId().toString())
-                                    )
-                                    .body(result)
-                        );
-                }
+        return regionService
+            .update(regionDTO)
+            .switchIfEmpty(Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound")))
+            .map(
+                result ->
+                    ResponseEntity
+                        .ok()
+                        .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, result.getId().toString()))
+                        .body(result)
             );
     }
 
     /**
      * {@code PATCH  /regions/:id} : Partial updates given fields of an existing region, field will ignore if it is null
      *
+     * The regionDTO should carry the version it was read at, so the region is patched in a single statement: without it, the region
+     * is read first.
+     *
      * @param id the id of the regionDTO to save.
      * @param regionDTO the regionDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated regionDTO,
      * or with status {@code 400 (Bad Request)} if the regionDTO is not valid,
      * or with status {@code 404 (Not Found)} if the regionDTO is not found,
+     * or with status {@code 409 (Conflict)} if the region changed since the version of the regionDTO, when it's given,
      * or with status {@code 500 (Internal Server Error)} if the regionDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
@@ -145,29 +158,42 @@ public class RegionResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        return regionRepository
-            .existsById(id)
-            .flatMap(
-                exists -> {
-                    if (!exists) {
-                        return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                    }
-
-                    Mono<RegionDTO> result = regionService.partialUpdate(regionDTO);
-
-                    return result
-                        .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                        .map(
-                            res ->
-                                ResponseEntity
-                                    .ok()
-                                    .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, res.getId().toString()))
-                                    .body(res)
-                        );
-                }
+        return regionService
+            .partialUpdate(regionDTO)
+            .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
+            .map(
+                result ->
+                    ResponseEntity
+                        .ok()
+                        .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, result.getId().toString()))
+                        .body(result)
             );
     }
 
+    /**
+     * {@code POST  /regions/bulk} : Create regions in bulk.
+     * <p>
+     * The body is read as it is received, as {@code application/x-ndjson} or {@code text/csv}, and the regions are written in batches,
+     * each one in its own transaction. The result of every batch is streamed back as soon as it's written.
+     *
+     * @param contentType the content type of the body.
+     * @param body the regions to create.
+     * @return the result of every batch, or with status {@code 415 (Unsupported Media Type)} if the format isn't supported.
+     */
+    @PostMapping(
+        value = "/regions/bulk",
+        consumes = { MediaType.APPLICATION_NDJSON_VALUE, BulkImportUtil.TEXT_CSV_VALUE },
+        produces = MediaType.APPLICATION_NDJSON_VALUE
+    )
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public Flux<BulkImportResultDTO> importRegions(
+        @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+        @RequestBody Flux<DataBuffer> body
+    ) {
+        log.debug("REST request to import Regions : {}", contentType);
+        return regionService.importAll(BulkImportUtil.readLines(contentType, body, RegionDTO.class, objectMapper));
+    }
+
     /**
      * {@code GET  /regions} : get all the regions.
      *
@@ -179,6 +205,33 @@ public class RegionResource {
         return regionService.findAll().collectList();
     }
 
+    /**
+     * {@code GET  /regions?after=} : get a page of the regions with keyset pagination.
+     *
+     * @param pageable the page size and the sort.
+     * @param after the cursor of the previous page, or empty for the first page.
+     * @param total whether to count all the regions.
+     * @param request a {@link ServerHttpRequest} request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of regions in body.
+     */
+    @GetMapping(value = "/regions", params = KeysetPaginationUtil.AFTER_PARAMETER)
+    public Mono<ResponseEntity<List<RegionDTO>>> getRegionsAfter(
+        Pageable pageable,
+        @RequestParam(KeysetPaginationUtil.AFTER_PARAMETER) String after,
+        @RequestParam(value = KeysetPaginationUtil.TOTAL_PARAMETER, defaultValue = "false") boolean total,
+        ServerHttpRequest request
+    ) {
+        log.debug("REST request to get a keyset page of Regions");
+        Keyset keyset = KeysetPaginationUtil.getKeyset(pageable, after, RegionDTO.class, sortableProperties, objectMapper);
+        return KeysetPaginationUtil.createKeysetResponse(
+            UriComponentsBuilder.fromHttpRequest(request),
+            keyset,
+            regionService.findAll(keyset),
+            total ? regionService.countAll() : Mono.empty(),
+            objectMapper
+        );
+    }
+
     /**
      * {@code GET  /regions} : get all the regions as a stream.
      * @return the {@link Flux} of regions.
@@ -1,13 +1,16 @@
 package com.github.ghrocs.web.rest;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.github.ghrocs.security.LoginRateLimiter;
 import com.github.ghrocs.security.jwt.JWTFilter;
 import com.github.ghrocs.security.jwt.TokenProvider;
 import com.github.ghrocs.web.rest.vm.LoginVM;
+import java.net.InetSocketAddress;
 import javax.validation.Valid;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.security.authentication.ReactiveAuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.web.bind.annotation.*;
@@ -25,18 +28,42 @@ public class UserJWTController {
 
     private final ReactiveAuthenticationManager authenticationManager;
 
-    public UserJWTController(TokenProvider tokenProvider, ReactiveAuthenticationManager authenticationManager) {
+    private final LoginRateLimiter loginRateLimiter;
+
+    public UserJWTController(
+        TokenProvider tokenProvider,
+        ReactiveAuthenticationManager authenticationManager,
+        LoginRateLimiter loginRateLimiter
+    ) {
         this.tokenProvider = tokenProvider;
         this.authenticationManager = authenticationManager;
+        this.loginRateLimiter = loginRateLimiter;
     }
 
+    /**
+     * {@code POST  /authenticate} : authenticates a user.
+     *
+     * @param loginVM the login and password.
+     * @param request the request, whose client IP address is rate limited.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the JWT token, or with status {@code 401 (Unauthorized)}, or with
+     * status {@code 429 (Too Many Requests)} if the client or the login made too many attempts.
+     */
     @PostMapping("/authenticate")
-    public Mono<ResponseEntity<JWTToken>> authorize(@Valid @RequestBody Mono<LoginVM> loginVM) {
+    public Mono<ResponseEntity<JWTToken>> authorize(@Valid @RequestBody Mono<LoginVM> loginVM, ServerHttpRequest request) {
         return loginVM
             .flatMap(
                 login ->
-                    authenticationManager
-                        .authenticate(new UsernamePasswordAuthenticationToken(login.getUsername(), login.getPassword()))
+                    Mono
+                        .fromRunnable(() -> loginRateLimiter.acquire(login.getUsername(), clientIp(request)))
+                        .then(
+                            Mono.defer(
+                                () ->
+                                    authenticationManager.authenticate(
+                                        new UsernamePasswordAuthenticationToken(login.getUsername(), login.getPassword())
+                                    )
+                            )
+                        )
+                        .doOnNext(auth -> loginRateLimiter.reset(login.getUsername()))
                         .flatMap(auth -> Mono.fromCallable(() -> tokenProvider.createToken(auth, login.isRememberMe())))
             )
             .map(
@@ -48,6 +75,17 @@ public class UserJWTController {
             );
     }
 
+    /**
+     * The address of the client, or of the last proxy unless {@code server.forward-headers-strategy} is set.
+     */
+    private static String clientIp(ServerHttpRequest request) {
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        if (remoteAddress == null || remoteAddress.getAddress() == null) {
+            return null;
+        }
+        return remoteAddress.getAddress().getHostAddress();
+    }
+
     /**
      * Object to return as body in JWT Authentication.
      */
@@ -1,15 +1,17 @@
 package com.github.ghrocs.web.rest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.ghrocs.config.Constants;
 import com.github.ghrocs.domain.User;
 import com.github.ghrocs.repository.UserRepository;
 import com.github.ghrocs.security.AuthoritiesConstants;
-import com.github.ghrocs.service.MailService;
+import com.github.ghrocs.service.Keyset;
 import com.github.ghrocs.service.UserService;
 import com.github.ghrocs.service.dto.AdminUserDTO;
 import com.github.ghrocs.web.rest.errors.BadRequestAlertException;
 import com.github.ghrocs.web.rest.errors.EmailAlreadyUsedException;
 import com.github.ghrocs.web.rest.errors.LoginAlreadyUsedException;
+import com.github.ghrocs.web.util.KeysetPaginationUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
@@ -25,6 +27,7 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -77,12 +80,12 @@ public class UserResource {
 
     private final UserRepository userRepository;
 
-    private final MailService mailService;
+    private final ObjectMapper objectMapper;
 
-    public UserResource(UserService userService, UserRepository userRepository, MailService mailService) {
+    public UserResource(UserService userService, UserRepository userRepository, ObjectMapper objectMapper) {
         this.userService = userService;
         this.userRepository = userRepository;
-        this.mailService = mailService;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -125,7 +128,6 @@ public class UserResource {
                     return userService.createUser(userDTO);
                 }
             )
-            .doOnSuccess(mailService::sendCreationEmail)
             .map(
                 user -> {
                     try {
@@ -206,6 +208,51 @@ public class UserResource {
             .map(headers -> ResponseEntity.ok().headers(headers).body(userService.getAllManagedUsers(pageable)));
     }
 
+    /**
+     * {@code GET /admin/users} : get all users with all the details as a stream - calling this are only allowed for the administrators.
+     *
+     * @return the {@link Flux} of users.
+     */
+    @GetMapping(value = "/users", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public Flux<AdminUserDTO> getAllUsersAsStream() {
+        log.debug("REST request to get all User for an admin as a stream");
+        return userService.getAllManagedUsers();
+    }
+
+    /**
+     * {@code GET /admin/users?after=} : get a page of users with all the details with keyset pagination - calling this are only allowed for
+     * the administrators.
+     *
+     * @param request a {@link ServerHttpRequest} request.
+     * @param pageable the page size and the sort.
+     * @param after the cursor of the previous page, or empty for the first page.
+     * @param total whether to count all the users.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the users of the page.
+     */
+    @GetMapping(value = "/users", params = KeysetPaginationUtil.AFTER_PARAMETER)
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public Mono<ResponseEntity<List<AdminUserDTO>>> getUsersAfter(
+        ServerHttpRequest request,
+        Pageable pageable,
+        @RequestParam(KeysetPaginationUtil.AFTER_PARAMETER) String after,
+        @RequestParam(value = KeysetPaginationUtil.TOTAL_PARAMETER, defaultValue = "false") boolean total
+    ) {
+        log.debug("REST request to get a keyset page of User for an admin");
+        if (!onlyContainsAllowedProperties(pageable)) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+
+        Keyset keyset = KeysetPaginationUtil.getKeyset(pageable, after, AdminUserDTO.class, ALLOWED_ORDERED_PROPERTIES, objectMapper);
+        return KeysetPaginationUtil.createKeysetResponse(
+            UriComponentsBuilder.fromHttpRequest(request),
+            keyset,
+            userService.getAllManagedUsers(keyset),
+            total ? userService.countManagedUsers() : Mono.empty(),
+            objectMapper
+        );
+    }
+
     private boolean onlyContainsAllowedProperties(Pageable pageable) {
         return pageable.getSort().stream().map(Sort.Order::getProperty).allMatch(ALLOWED_ORDERED_PROPERTIES::contains);
     }
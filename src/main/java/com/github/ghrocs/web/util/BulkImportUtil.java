@@ -0,0 +1,200 @@
+package com.github.ghrocs.web.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.ghrocs.service.BulkImportLine;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.StringDecoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+
+/**
+ * Utility class for reading the body of a bulk import.
+ * <p>
+ * The body is split into lines as it is received, and every line is read on its own, so it's never held in memory as a whole. Two formats
+ * are supported:
+ * <ul>
+ *     <li>{@code application/x-ndjson}: one JSON object per line.</li>
+ *     <li>{@code text/csv}: a header line with the property names, separated by {@code ,} or {@code ;}, nested properties like
+ *     {@code region.id} written with dots, then one element per line. Values can be quoted with {@code "}, but they can't span lines. An
+ *     empty value is read as null.</li>
+ * </ul>
+ * Blank lines are skipped, a line which can't be read is returned as an invalid {@link BulkImportLine}. The lines are read with the
+ * {@link ObjectMapper} of the application.
+ */
+public final class BulkImportUtil {
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    private static final StringDecoder lineDecoder = StringDecoder.allMimeTypes();
+
+    private BulkImportUtil() {}
+
+    /**
+     * Reads the elements of the given body.
+     *
+     * @param contentType the content type of the body, {@code application/x-ndjson} or {@code text/csv}.
+     * @param body the body of the request.
+     * @param elementType the type of the elements.
+     * @param objectMapper the mapper to read the elements with.
+     * @param <T> the type of the elements.
+     * @return the lines of the body, without the blank ones and the CSV header, or a {@link ResponseStatusException}
+     * {@code 400 (Bad Request)} if the CSV header is invalid.
+     * @throws ResponseStatusException {@code 415 (Unsupported Media Type)} if the content type isn't supported.
+     */
+    public static <T> Flux<BulkImportLine<T>> readLines(
+        MediaType contentType,
+        Flux<DataBuffer> body,
+        Class<T> elementType,
+        ObjectMapper objectMapper
+    ) {
+        Flux<String> lines = lineDecoder.decode(body, ResolvableType.forClass(String.class), contentType, Collections.emptyMap());
+        if (MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)) {
+            return lines
+                .index()
+                .filter(line -> !line.getT2().isBlank())
+                .map(line -> readJson(line.getT1() + 1, line.getT2(), elementType, objectMapper));
+        }
+        if (MediaType.parseMediaType(TEXT_CSV_VALUE).isCompatibleWith(contentType)) {
+            return lines
+                .index()
+                .filter(line -> !line.getT2().isBlank())
+                .switchOnFirst(
+                    (first, all) -> {
+                        if (!first.hasValue()) {
+                            return Flux.empty();
+                        }
+                        String header = first.get().getT2();
+                        char separator = header.indexOf(';') >= 0 && header.indexOf(',') < 0 ? ';' : ',';
+                        List<String> properties = readCsvHeader(header, separator);
+                        return all
+                            .skip(1)
+                            .map(line -> readCsv(line.getT1() + 1, line.getT2(), separator, properties, elementType, objectMapper));
+                    }
+                );
+        }
+        throw new ResponseStatusException(HttpStatus.UNSUPPORTED_MEDIA_TYPE, "Unsupported bulk import format");
+    }
+
+    private static <T> BulkImportLine<T> readJson(long lineNumber, String line, Class<T> elementType, ObjectMapper objectMapper) {
+        try {
+            return BulkImportLine.of(lineNumber, objectMapper.readValue(line, elementType));
+        } catch (JsonProcessingException e) {
+            return BulkImportLine.invalid(lineNumber, e.getOriginalMessage());
+        }
+    }
+
+    private static <T> BulkImportLine<T> readCsv(
+        long lineNumber,
+        String line,
+        char separator,
+        List<String> properties,
+        Class<T> elementType,
+        ObjectMapper objectMapper
+    ) {
+        try {
+            List<String> values = splitCsv(line, separator);
+            if (values.size() != properties.size()) {
+                return BulkImportLine.invalid(lineNumber, "expected " + properties.size() + " values, found " + values.size());
+            }
+            ObjectNode element = objectMapper.createObjectNode();
+            for (int i = 0; i < properties.size(); i++) {
+                if (!values.get(i).isEmpty()) {
+                    setProperty(element, properties.get(i), values.get(i));
+                }
+            }
+            return BulkImportLine.of(lineNumber, objectMapper.treeToValue(element, elementType));
+        } catch (JsonProcessingException e) {
+            return BulkImportLine.invalid(lineNumber, e.getOriginalMessage());
+        } catch (IllegalArgumentException e) {
+            return BulkImportLine.invalid(lineNumber, e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the property names of the CSV header, and checks that every property is either a value or an object: {@code region} and
+     * {@code region.id} can't both be columns.
+     */
+    private static List<String> readCsvHeader(String header, char separator) {
+        List<String> properties;
+        try {
+            properties = splitCsv(header, separator);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid bulk import header: " + e.getMessage());
+        }
+        Set<String> values = new HashSet<>();
+        for (String property : properties) {
+            if (property.isEmpty() || !values.add(property)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid bulk import header: empty or duplicate property");
+            }
+        }
+        for (String property : properties) {
+            for (int dot = property.indexOf('.'); dot >= 0; dot = property.indexOf('.', dot + 1)) {
+                if (values.contains(property.substring(0, dot))) {
+                    throw new ResponseStatusException(
+                        HttpStatus.BAD_REQUEST,
+                        "Invalid bulk import header: " + property.substring(0, dot) + " is both a value and an object"
+                    );
+                }
+            }
+        }
+        return properties;
+    }
+
+    private static void setProperty(ObjectNode element, String property, String value) {
+        int dot = property.indexOf('.');
+        if (dot < 0) {
+            element.put(property, value);
+            return;
+        }
+        String name = property.substring(0, dot);
+        JsonNode nested = element.get(name);
+        if (nested == null) {
+            nested = element.putObject(name);
+        } else if (!nested.isObject()) {
+            throw new IllegalArgumentException(name + " is both a value and an object");
+        }
+        setProperty((ObjectNode) nested, property.substring(dot + 1), value);
+    }
+
+    private static List<String> splitCsv(String line, char separator) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    value.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == separator) {
+                values.add(value.toString().trim());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted value");
+        }
+        values.add(value.toString().trim());
+        return values;
+    }
+}
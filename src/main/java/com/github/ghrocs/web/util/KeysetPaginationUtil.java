@@ -0,0 +1,186 @@
+package com.github.ghrocs.web.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.github.ghrocs.service.Keyset;
+import java.beans.PropertyDescriptor;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Utility class for handling keyset (seek) pagination.
+ * <p>
+ * A client opts in by sending the {@code after} parameter: empty for the first page, then the opaque cursor of the {@code next} link.
+ * The cursor holds the values of the sort properties of the last element of the previous page. The total number of elements is only
+ * counted, and returned in the {@code X-Total-Count} header, when the {@code total} parameter is {@code true}.
+ * <p>
+ * The cursors are written and read with the {@link ObjectMapper} of the application, so the sort values have the same representation as
+ * in the bodies of the responses.
+ */
+public final class KeysetPaginationUtil {
+
+    public static final String AFTER_PARAMETER = "after";
+    public static final String TOTAL_PARAMETER = "total";
+
+    private static final String HEADER_X_TOTAL_COUNT = "X-Total-Count";
+    private static final String HEADER_LINK_FORMAT = "<{0}>; rel=\"{1}\"";
+
+    private KeysetPaginationUtil() {}
+
+    /**
+     * Creates the keyset of the requested page.
+     *
+     * @param pageable the page size and the sort.
+     * @param after the cursor of the previous page, or an empty string for the first page.
+     * @param elementType the type of the returned elements, which must have a readable property for every sort property.
+     * @param sortableProperties the properties the rows can be sorted by, such as the columns of the entity.
+     * @param objectMapper the mapper the cursor was written with.
+     * @return the keyset.
+     * @throws ResponseStatusException {@code 400 (Bad Request)} if the sort or the cursor is invalid.
+     */
+    public static Keyset getKeyset(
+        Pageable pageable,
+        String after,
+        Class<?> elementType,
+        Collection<String> sortableProperties,
+        ObjectMapper objectMapper
+    ) {
+        Sort sort = Keyset.withPrimaryKey(pageable.getSort());
+        List<Class<?>> propertyTypes = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(elementType, order.getProperty());
+            if (!sortableProperties.contains(order.getProperty()) || descriptor == null || descriptor.getReadMethod() == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid sort property for keyset pagination");
+            }
+            propertyTypes.add(descriptor.getPropertyType());
+        }
+        if (after.isEmpty()) {
+            return Keyset.first(sort, pageable.getPageSize());
+        }
+
+        try {
+            JsonNode cursor = objectMapper.readTree(Base64.getUrlDecoder().decode(after));
+            if (!cursor.isArray() || cursor.size() != propertyTypes.size()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+            }
+            List<Object> values = new ArrayList<>();
+            for (int i = 0; i < propertyTypes.size(); i++) {
+                values.add(objectMapper.treeToValue(cursor.get(i), propertyTypes.get(i)));
+            }
+            return Keyset.of(sort, values, pageable.getPageSize());
+        } catch (IOException | IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor", e);
+        }
+    }
+
+    /**
+     * Collects the elements read with the keyset into a response, with the pagination headers.
+     *
+     * @param uriBuilder the builder of the request URI.
+     * @param keyset the keyset the elements were read with.
+     * @param elements the elements, at most {@link Keyset#getLimit()}.
+     * @param total the total number of elements, or an empty {@link Mono} if it wasn't requested.
+     * @param objectMapper the mapper to write the cursor with.
+     * @param <T> the type of the elements.
+     * @return the response with the elements of the page.
+     */
+    public static <T> Mono<ResponseEntity<List<T>>> createKeysetResponse(
+        UriComponentsBuilder uriBuilder,
+        Keyset keyset,
+        Flux<T> elements,
+        Mono<Long> total,
+        ObjectMapper objectMapper
+    ) {
+        return elements
+            .collectList()
+            .zipWith(total.map(Optional::of).defaultIfEmpty(Optional.empty()))
+            .map(
+                elementsWithTotal -> {
+                    List<T> page = elementsWithTotal.getT1();
+                    List<T> content = page.size() > keyset.getSize() ? page.subList(0, keyset.getSize()) : page;
+                    HttpHeaders headers = generateKeysetHttpHeaders(
+                        uriBuilder,
+                        keyset,
+                        page,
+                        elementsWithTotal.getT2().orElse(null),
+                        objectMapper
+                    );
+                    return ResponseEntity.ok().headers(headers).body(content);
+                }
+            );
+    }
+
+    /**
+     * Generates the pagination headers: the {@code first} link, the {@code next} link when there are further elements, and the total
+     * count when it is known.
+     *
+     * @param uriBuilder the builder of the request URI.
+     * @param keyset the keyset the elements were read with.
+     * @param elements the elements, at most {@link Keyset#getLimit()}.
+     * @param total the total number of elements, or null.
+     * @param objectMapper the mapper to write the cursor with.
+     * @param <T> the type of the elements.
+     * @return the http headers.
+     */
+    public static <T> HttpHeaders generateKeysetHttpHeaders(
+        UriComponentsBuilder uriBuilder,
+        Keyset keyset,
+        List<T> elements,
+        Long total,
+        ObjectMapper objectMapper
+    ) {
+        HttpHeaders headers = new HttpHeaders();
+        if (total != null) {
+            headers.add(HEADER_X_TOTAL_COUNT, Long.toString(total));
+        }
+        StringBuilder link = new StringBuilder();
+        if (elements.size() > keyset.getSize()) {
+            String cursor = createCursor(keyset, elements.get(keyset.getSize() - 1), objectMapper);
+            link.append(prepareLink(uriBuilder, cursor, keyset.getSize(), "next")).append(",");
+        }
+        link.append(prepareLink(uriBuilder, "", keyset.getSize(), "first"));
+        headers.add(HttpHeaders.LINK, link.toString());
+        return headers;
+    }
+
+    private static String createCursor(Keyset keyset, Object element, ObjectMapper objectMapper) {
+        BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(element);
+        ArrayNode cursor = objectMapper.createArrayNode();
+        for (Sort.Order order : keyset.getSort()) {
+            cursor.add(objectMapper.valueToTree(wrapper.getPropertyValue(order.getProperty())));
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String prepareLink(UriComponentsBuilder uriBuilder, String cursor, int size, String relType) {
+        // the builder holds the encoded query of the request, which must not be encoded a second time: the cursor is url safe already
+        String uri = uriBuilder
+            .replaceQueryParam("page")
+            .replaceQueryParam(AFTER_PARAMETER, cursor)
+            .replaceQueryParam("size", Integer.toString(size))
+            .build(true)
+            .toUriString()
+            .replace(",", "%2C")
+            .replace(";", "%3B");
+        return MessageFormat.format(HEADER_LINK_FORMAT, uri, relType);
+    }
+}
@@ -6,6 +6,7 @@ export interface ICountry {
   countryName?: string | null;
   language?: Language | null;
   region?: IRegion | null;
+  version?: number;
 }
 
 export const defaultValue: Readonly<ICountry> = {};
@@ -1,6 +1,7 @@
 export interface IRegion {
   id?: number;
   regionName?: string | null;
+  version?: number;
 }
 
 export const defaultValue: Readonly<IRegion> = {};
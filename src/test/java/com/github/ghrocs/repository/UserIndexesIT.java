@@ -0,0 +1,80 @@
+package com.github.ghrocs.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.github.ghrocs.IntegrationTest;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.Result;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Integration tests checking the plans of the lookups of the users, on PostgreSQL only: run them with the {@code testcontainers}
+ * profile.
+ */
+@IntegrationTest
+class UserIndexesIT {
+
+    @Autowired
+    private DatabaseClient db;
+
+    @BeforeEach
+    public void assumePostgreSQL() {
+        assumeTrue("PostgreSQL".equals(db.getConnectionFactory().getMetadata().getName()), "the indexes are checked on PostgreSQL");
+    }
+
+    @Test
+    void testFindOneByActivationKeyUsesItsIndex() {
+        assertThat(explain("SELECT * FROM jhi_user WHERE jhi_user.activation_key = 'key'")).contains("idx_user_activation_key");
+    }
+
+    @Test
+    void testFindOneByResetKeyUsesItsIndex() {
+        assertThat(explain("SELECT * FROM jhi_user WHERE jhi_user.reset_key = 'key'")).contains("idx_user_reset_key");
+    }
+
+    @Test
+    void testFindOneByEmailUsesItsIndex() {
+        assertThat(explain("SELECT * FROM jhi_user WHERE jhi_user.email = 'john.doe@localhost'")).contains("ux_user_email");
+    }
+
+    @Test
+    void testNotActivatedUsersCleanupUsesItsIndex() {
+        assertThat(
+            explain(
+                "SELECT id FROM jhi_user WHERE activated = false AND activation_key IS NOT NULL AND created_date < now() " +
+                "ORDER BY id LIMIT 1000"
+            )
+        )
+            .contains("idx_user_not_activated");
+    }
+
+    /**
+     * Explains a query on a table too small for the planner to prefer an index, unless the sequential scans are disabled.
+     */
+    private String explain(String sql) {
+        return db
+            .inConnectionMany(
+                connection ->
+                    execute(connection, "SET enable_seqscan = off")
+                        .thenMany(
+                            Flux
+                                .from(connection.createStatement("EXPLAIN " + sql).execute())
+                                .flatMap(result -> result.map((row, metadata) -> row.get(0, String.class)))
+                        )
+                        .concatWith(execute(connection, "RESET enable_seqscan").then(Mono.empty()))
+            )
+            .collect(Collectors.joining("\n"))
+            .block();
+    }
+
+    private static Mono<Void> execute(Connection connection, String sql) {
+        return Flux.from(connection.createStatement(sql).execute()).flatMap(Result::getRowsUpdated).then();
+    }
+}
@@ -0,0 +1,93 @@
+package com.github.ghrocs.repository.rowmapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.ghrocs.domain.Country;
+import com.github.ghrocs.domain.Region;
+import com.github.ghrocs.domain.enumeration.Language;
+import com.github.ghrocs.service.ColumnConverter;
+import io.r2dbc.spi.Row;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.r2dbc.convert.MappingR2dbcConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.dialect.H2Dialect;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+
+/**
+ * Test class for the {@link CountryRowMapper}, whose columns bound to a prefix must be the ones the prefix was concatenated to on every
+ * row.
+ */
+class CountryRowMapperUnitTest {
+
+    private ColumnConverter converter;
+
+    private CountryRowMapper countryMapper;
+
+    private RegionRowMapper regionMapper;
+
+    @BeforeEach
+    public void setup() {
+        R2dbcCustomConversions conversions = R2dbcCustomConversions.of(H2Dialect.INSTANCE);
+        converter = new ColumnConverter(conversions, new MappingR2dbcConverter(new R2dbcMappingContext(), conversions));
+        countryMapper = new CountryRowMapper(converter);
+        regionMapper = new RegionRowMapper(converter);
+    }
+
+    @Test
+    void testCountryOfACustomPrefix() {
+        Row row = new MapRow()
+            .with("c_id", 1L)
+            .with("c_country_name", "France")
+            .with("c_language", "FRENCH")
+            .with("c_region_id", 2L)
+            .with("c_version", 3L);
+
+        Country country = countryMapper.withPrefix("c").apply(row);
+
+        assertThat(country).usingRecursiveComparison().isEqualTo(concatenating(row, "c"));
+        assertThat(countryMapper.apply(row, "c")).usingRecursiveComparison().isEqualTo(country);
+        assertThat(country.getCountryName()).isEqualTo("France");
+        assertThat(country.getLanguage()).isEqualTo(Language.FRENCH);
+        assertThat(country.getRegionId()).isEqualTo(2L);
+    }
+
+    @Test
+    void testCountryJoinedWithItsRegion() {
+        // the id of the region and the region id of the country only differ by their prefix
+        Row row = new MapRow()
+            .with("e_id", 1L)
+            .with("e_country_name", "France")
+            .with("e_language", null)
+            .with("e_region_id", 2L)
+            .with("e_version", 0L)
+            .with("region_id", 2L)
+            .with("region_region_name", "Europe")
+            .with("region_version", 5L);
+
+        Country country = countryMapper.withPrefix("e").apply(row);
+        Region region = regionMapper.withPrefix("region").apply(row);
+
+        assertThat(country).usingRecursiveComparison().isEqualTo(concatenating(row, "e"));
+        assertThat(region).usingRecursiveComparison().isEqualTo(RegionRowMapperUnitTest.concatenating(converter, row, "region"));
+        assertThat(country.getId()).isEqualTo(1L);
+        assertThat(country.getLanguage()).isNull();
+        assertThat(country.getVersion()).isZero();
+        assertThat(region.getId()).isEqualTo(2L);
+        assertThat(region.getRegionName()).isEqualTo("Europe");
+        assertThat(region.getVersion()).isEqualTo(5L);
+    }
+
+    /**
+     * Maps the row as the mapper did before its columns were bound to the prefix.
+     */
+    private Country concatenating(Row row, String prefix) {
+        Country entity = new Country();
+        entity.setId(converter.fromRow(row, prefix + "_id", Long.class));
+        entity.setCountryName(converter.fromRow(row, prefix + "_country_name", String.class));
+        entity.setLanguage(converter.fromRow(row, prefix + "_language", Language.class));
+        entity.setRegionId(converter.fromRow(row, prefix + "_region_id", Long.class));
+        entity.setVersion(converter.fromRow(row, prefix + "_version", Long.class));
+        return entity;
+    }
+}
@@ -0,0 +1,35 @@
+package com.github.ghrocs.repository.rowmapper;
+
+import io.r2dbc.spi.Row;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A {@link Row} of the given columns, which rejects the unknown columns and the types it doesn't hold, as a driver does.
+ */
+final class MapRow implements Row {
+
+    private final Map<String, Object> columns = new HashMap<>();
+
+    MapRow with(String column, Object value) {
+        columns.put(column, value);
+        return this;
+    }
+
+    @Override
+    public <T> T get(int index, Class<T> type) {
+        throw new UnsupportedOperationException("the columns are read by name");
+    }
+
+    @Override
+    public <T> T get(String name, Class<T> type) {
+        if (!columns.containsKey(name)) {
+            throw new IllegalArgumentException("Unknown column " + name);
+        }
+        Object value = columns.get(name);
+        if (value != null && !type.isInstance(value)) {
+            throw new IllegalArgumentException("Column " + name + " can't be read as " + type.getName());
+        }
+        return type.cast(value);
+    }
+}
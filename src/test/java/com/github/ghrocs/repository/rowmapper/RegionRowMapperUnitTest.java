@@ -0,0 +1,61 @@
+package com.github.ghrocs.repository.rowmapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.ghrocs.domain.Region;
+import com.github.ghrocs.service.ColumnConverter;
+import io.r2dbc.spi.Row;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.r2dbc.convert.MappingR2dbcConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.dialect.H2Dialect;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+
+/**
+ * Test class for the {@link RegionRowMapper}, whose columns bound to a prefix must be the ones the prefix was concatenated to on every
+ * row.
+ */
+class RegionRowMapperUnitTest {
+
+    private ColumnConverter converter;
+
+    private RegionRowMapper regionMapper;
+
+    @BeforeEach
+    public void setup() {
+        R2dbcCustomConversions conversions = R2dbcCustomConversions.of(H2Dialect.INSTANCE);
+        converter = new ColumnConverter(conversions, new MappingR2dbcConverter(new R2dbcMappingContext(), conversions));
+        regionMapper = new RegionRowMapper(converter);
+    }
+
+    @Test
+    void testRegionOfEachPrefix() {
+        Row row = new MapRow()
+            .with("e_id", 1L)
+            .with("e_region_name", "Europe")
+            .with("e_version", 2L)
+            .with("r_id", 3L)
+            .with("r_region_name", null)
+            .with("r_version", 4L);
+
+        for (String prefix : new String[] { "e", "r" }) {
+            Region region = regionMapper.withPrefix(prefix).apply(row);
+
+            assertThat(region).usingRecursiveComparison().isEqualTo(concatenating(converter, row, prefix));
+            assertThat(regionMapper.apply(row, prefix)).usingRecursiveComparison().isEqualTo(region);
+        }
+        assertThat(regionMapper.withPrefix("r").apply(row).getId()).isEqualTo(3L);
+    }
+
+    /**
+     * Maps the row as the mapper did before its columns were bound to the prefix.
+     */
+    static Region concatenating(ColumnConverter converter, Row row, String prefix) {
+        Region entity = new Region();
+        entity.setId(converter.fromRow(row, prefix + "_id", Long.class));
+        entity.setRegionName(converter.fromRow(row, prefix + "_region_name", String.class));
+        entity.setVersion(converter.fromRow(row, prefix + "_version", Long.class));
+        return entity;
+    }
+}
@@ -0,0 +1,122 @@
+package com.github.ghrocs.repository.rowmapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.github.ghrocs.domain.User;
+import com.github.ghrocs.service.ColumnConverter;
+import io.r2dbc.spi.Row;
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.function.Function;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.r2dbc.convert.MappingR2dbcConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.dialect.H2Dialect;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+
+/**
+ * Test class for the {@link UserRowMapper}, whose columns bound to a prefix must be the ones the prefix was concatenated to on every
+ * row.
+ */
+class UserRowMapperUnitTest {
+
+    private static final int ROWS = 10_000;
+
+    private ColumnConverter converter;
+
+    private UserRowMapper userMapper;
+
+    @BeforeEach
+    public void setup() {
+        R2dbcCustomConversions conversions = R2dbcCustomConversions.of(H2Dialect.INSTANCE);
+        converter = new ColumnConverter(conversions, new MappingR2dbcConverter(new R2dbcMappingContext(), conversions));
+        userMapper = new UserRowMapper(converter);
+    }
+
+    @Test
+    void testUserOfACustomPrefix() {
+        Row row = createRow("u");
+
+        User user = userMapper.withPrefix("u").apply(row);
+
+        assertThat(user).usingRecursiveComparison().isEqualTo(concatenating(row, "u"));
+        assertThat(userMapper.apply(row, "u")).usingRecursiveComparison().isEqualTo(user);
+        assertThat(user.getLogin()).isEqualTo("u-login");
+        assertThat(user.isActivated()).isTrue();
+        assertThat(user.getResetDate()).isNull();
+        assertThat(user.getCreatedDate()).isEqualTo(Instant.EPOCH);
+    }
+
+    @Test
+    void testBoundColumnsAreNotAllocatedForEachRow() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported(), "measures the memory allocated by the thread");
+        Row row = createRow("e");
+        Function<Row, User> bound = userMapper.withPrefix("e");
+        Function<Row, User> concatenating = r -> concatenating(r, "e");
+        // warms up both paths, so the measurement doesn't count the class loading
+        allocatedBytes(threads, bound, row);
+        allocatedBytes(threads, concatenating, row);
+
+        long boundBytes = allocatedBytes(threads, bound, row);
+        long concatenatingBytes = allocatedBytes(threads, concatenating, row);
+
+        // the 16 column names, built for every row, outweigh the user itself
+        assertThat(boundBytes).isLessThan(concatenatingBytes / 2);
+    }
+
+    private static long allocatedBytes(com.sun.management.ThreadMXBean threads, Function<Row, User> mapper, Row row) {
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ROWS; i++) {
+            mapper.apply(row);
+        }
+        return threads.getThreadAllocatedBytes(threadId) - before;
+    }
+
+    private static Row createRow(String prefix) {
+        return new MapRow()
+            .with(prefix + "_id", 1L)
+            .with(prefix + "_login", prefix + "-login")
+            .with(prefix + "_password", "hash")
+            .with(prefix + "_first_name", "first")
+            .with(prefix + "_last_name", "last")
+            .with(prefix + "_email", prefix + "@example.com")
+            .with(prefix + "_activated", true)
+            .with(prefix + "_lang_key", "en")
+            .with(prefix + "_image_url", null)
+            .with(prefix + "_activation_key", null)
+            .with(prefix + "_reset_key", null)
+            .with(prefix + "_reset_date", null)
+            .with(prefix + "_created_by", "system")
+            .with(prefix + "_created_date", Instant.EPOCH)
+            .with(prefix + "_last_modified_by", "admin")
+            .with(prefix + "_last_modified_date", Instant.EPOCH.plusSeconds(60));
+    }
+
+    /**
+     * Maps the row as the mapper did before its columns were bound to the prefix.
+     */
+    private User concatenating(Row row, String prefix) {
+        User entity = new User();
+        entity.setId(row.get(prefix + "_id", Long.class));
+        entity.setLogin(converter.fromRow(row, prefix + "_login", String.class));
+        entity.setPassword(converter.fromRow(row, prefix + "_password", String.class));
+        entity.setFirstName(converter.fromRow(row, prefix + "_first_name", String.class));
+        entity.setLastName(converter.fromRow(row, prefix + "_last_name", String.class));
+        entity.setEmail(converter.fromRow(row, prefix + "_email", String.class));
+        entity.setActivated(Boolean.TRUE.equals(converter.fromRow(row, prefix + "_activated", Boolean.class)));
+        entity.setLangKey(converter.fromRow(row, prefix + "_lang_key", String.class));
+        entity.setImageUrl(converter.fromRow(row, prefix + "_image_url", String.class));
+        entity.setActivationKey(converter.fromRow(row, prefix + "_activation_key", String.class));
+        entity.setResetKey(converter.fromRow(row, prefix + "_reset_key", String.class));
+        entity.setResetDate(converter.fromRow(row, prefix + "_reset_date", Instant.class));
+        entity.setCreatedBy(converter.fromRow(row, prefix + "_created_by", String.class));
+        entity.setCreatedDate(converter.fromRow(row, prefix + "_created_date", Instant.class));
+        entity.setLastModifiedBy(converter.fromRow(row, prefix + "_last_modified_by", String.class));
+        entity.setLastModifiedDate(converter.fromRow(row, prefix + "_last_modified_date", Instant.class));
+        return entity;
+    }
+}
@@ -0,0 +1,43 @@
+package com.github.ghrocs.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Test class for the {@link AdaptiveBCryptPasswordEncoder}.
+ */
+class AdaptiveBCryptPasswordEncoderUnitTest {
+
+    @Test
+    void testHashOfALowerStrengthIsUpgraded() {
+        AdaptiveBCryptPasswordEncoder encoder = new AdaptiveBCryptPasswordEncoder(5);
+
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("password"))).isTrue();
+    }
+
+    @Test
+    void testHashOfTheSameOrAHigherStrengthIsNotUpgraded() {
+        AdaptiveBCryptPasswordEncoder encoder = new AdaptiveBCryptPasswordEncoder(5);
+
+        assertThat(encoder.upgradeEncoding(encoder.encode("password"))).isFalse();
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("password"))).isFalse();
+    }
+
+    @Test
+    void testHashOfAnotherAlgorithmIsNotUpgraded() {
+        AdaptiveBCryptPasswordEncoder encoder = new AdaptiveBCryptPasswordEncoder(5);
+
+        assertThat(encoder.upgradeEncoding("not a bcrypt hash")).isFalse();
+        assertThat(encoder.upgradeEncoding("")).isFalse();
+        assertThat(encoder.upgradeEncoding(null)).isFalse();
+    }
+
+    @Test
+    void testCalibrationKeepsTheDefaultStrengthAtLeast() {
+        assertThat(AdaptiveBCryptPasswordEncoder.calibrate(Duration.ofMillis(1), 5))
+            .isEqualTo(AdaptiveBCryptPasswordEncoder.MIN_CALIBRATED_STRENGTH);
+    }
+}
@@ -0,0 +1,116 @@
+package com.github.ghrocs.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.*;
+
+import com.github.ghrocs.config.ApplicationProperties;
+import com.github.ghrocs.domain.Authority;
+import com.github.ghrocs.domain.User;
+import com.github.ghrocs.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import reactor.core.publisher.Mono;
+
+/**
+ * Test class for the {@link UserDetailsCache} of {@link DomainUserDetailsService}.
+ */
+class DomainUserDetailsServiceUnitTest {
+
+    private static final String LOGIN = "test-user";
+
+    private static final String EMAIL = "test-user@localhost";
+
+    private UserRepository userRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private UserDetailsCache userDetailsCache;
+
+    private DomainUserDetailsService domainUserDetailsService;
+
+    private User user;
+
+    @BeforeEach
+    public void setup() {
+        userRepository = mock(UserRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        userDetailsCache = new UserDetailsCache(new ApplicationProperties(), meterRegistry);
+        domainUserDetailsService = new DomainUserDetailsService(userRepository, userDetailsCache);
+
+        Authority authority = new Authority();
+        authority.setName(AuthoritiesConstants.USER);
+        user = new User();
+        user.setLogin(LOGIN);
+        user.setEmail(EMAIL);
+        user.setPassword("hash");
+        user.setActivated(true);
+        user.setAuthorities(Set.of(authority));
+        when(userRepository.findOneWithAuthoritiesByLogin(LOGIN)).thenAnswer(invocation -> Mono.just(user));
+        when(userRepository.findOneWithAuthoritiesByEmailIgnoreCase(EMAIL)).thenAnswer(invocation -> Mono.just(user));
+    }
+
+    @Test
+    void assertThatTheUserIsReadOnceByLogin() {
+        UserDetails first = domainUserDetailsService.findByUsername(LOGIN).block();
+        UserDetails second = domainUserDetailsService.findByUsername(LOGIN.toUpperCase()).block();
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getUsername()).isEqualTo(LOGIN);
+        assertThat(second.getPassword()).isEqualTo("hash");
+        assertThat(second.getAuthorities()).extracting("authority").containsExactly(AuthoritiesConstants.USER);
+        verify(userRepository, times(1)).findOneWithAuthoritiesByLogin(LOGIN);
+        assertThat(cacheHits()).isEqualTo(1);
+    }
+
+    @Test
+    void assertThatTheUserIsReadOnceByEmail() {
+        domainUserDetailsService.findByUsername(EMAIL).block();
+        domainUserDetailsService.findByUsername(EMAIL.toUpperCase()).block();
+
+        verify(userRepository, times(1)).findOneWithAuthoritiesByEmailIgnoreCase(EMAIL);
+    }
+
+    @Test
+    void assertThatAnEvictedUserIsReadAgain() {
+        domainUserDetailsService.findByUsername(LOGIN).block();
+        domainUserDetailsService.findByUsername(EMAIL).block();
+        user.setPassword("new-hash");
+        userDetailsCache.evict(LOGIN).block();
+
+        assertThat(domainUserDetailsService.findByUsername(LOGIN).block().getPassword()).isEqualTo("new-hash");
+        assertThat(domainUserDetailsService.findByUsername(EMAIL).block().getPassword()).isEqualTo("new-hash");
+        verify(userRepository, times(2)).findOneWithAuthoritiesByLogin(LOGIN);
+        verify(userRepository, times(2)).findOneWithAuthoritiesByEmailIgnoreCase(EMAIL);
+    }
+
+    @Test
+    void assertThatAnUnknownUserIsNotCached() {
+        when(userRepository.findOneWithAuthoritiesByLogin("unknown")).thenReturn(Mono.empty());
+
+        for (int i = 0; i < 2; i++) {
+            assertThatExceptionOfType(UsernameNotFoundException.class)
+                .isThrownBy(() -> domainUserDetailsService.findByUsername("unknown").block());
+        }
+        verify(userRepository, times(2)).findOneWithAuthoritiesByLogin("unknown");
+    }
+
+    @Test
+    void assertThatACachedUserStillNeedsToBeActivated() {
+        user.setActivated(false);
+
+        for (int i = 0; i < 2; i++) {
+            assertThatExceptionOfType(UserNotActivatedException.class)
+                .isThrownBy(() -> domainUserDetailsService.findByUsername(LOGIN).block());
+        }
+        verify(userRepository, times(1)).findOneWithAuthoritiesByLogin(LOGIN);
+    }
+
+    private double cacheHits() {
+        return meterRegistry.get("cache.gets").tag("cache", UserDetailsCache.LOGIN_CACHE).tag("result", "hit").functionCounter().count();
+    }
+}
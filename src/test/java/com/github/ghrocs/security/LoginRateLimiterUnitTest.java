@@ -0,0 +1,70 @@
+package com.github.ghrocs.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import com.github.ghrocs.config.ApplicationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link LoginRateLimiter}.
+ */
+class LoginRateLimiterUnitTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private LoginRateLimiter loginRateLimiter;
+
+    @BeforeEach
+    public void setup() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getLoginRateLimit().getPerLogin().setCapacity(3);
+        applicationProperties.getLoginRateLimit().getPerLogin().setRefillPeriod(Duration.ofMinutes(1));
+        applicationProperties.getLoginRateLimit().getPerIp().setCapacity(5);
+        applicationProperties.getLoginRateLimit().getPerIp().setRefillPeriod(Duration.ofMinutes(1));
+        meterRegistry = new SimpleMeterRegistry();
+        loginRateLimiter = new LoginRateLimiter(applicationProperties, meterRegistry);
+    }
+
+    @Test
+    void testLoginIsLimited() {
+        for (int i = 0; i < 3; i++) {
+            loginRateLimiter.acquire("user", "10.0.0." + i);
+        }
+
+        assertThatExceptionOfType(TooManyLoginAttemptsException.class)
+            .isThrownBy(() -> loginRateLimiter.acquire("USER", "10.0.0.9"))
+            .satisfies(e -> assertThat(e.getRetryAfter()).isPositive().isLessThanOrEqualTo(Duration.ofMinutes(1)));
+        assertThatCode(() -> loginRateLimiter.acquire("other", "10.0.0.9")).doesNotThrowAnyException();
+        assertThat(rejected("login")).isEqualTo(1);
+    }
+
+    @Test
+    void testIpIsLimited() {
+        for (int i = 0; i < 5; i++) {
+            loginRateLimiter.acquire("user" + i, "10.0.0.1");
+        }
+
+        assertThatExceptionOfType(TooManyLoginAttemptsException.class).isThrownBy(() -> loginRateLimiter.acquire("other", "10.0.0.1"));
+        assertThatCode(() -> loginRateLimiter.acquire("other", "10.0.0.2")).doesNotThrowAnyException();
+        assertThat(rejected("ip")).isEqualTo(1);
+    }
+
+    @Test
+    void testAuthenticatedLoginIsReset() {
+        for (int i = 0; i < 3; i++) {
+            loginRateLimiter.acquire("user", null);
+        }
+        loginRateLimiter.reset("User");
+
+        assertThatCode(() -> loginRateLimiter.acquire("user", null)).doesNotThrowAnyException();
+    }
+
+    private double rejected(String limit) {
+        return meterRegistry.get(LoginRateLimiter.REJECTED_COUNTER).tag("limit", limit).counter().count();
+    }
+}
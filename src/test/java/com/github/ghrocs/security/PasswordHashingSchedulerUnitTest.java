@@ -0,0 +1,67 @@
+package com.github.ghrocs.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import com.github.ghrocs.config.ApplicationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+/**
+ * Test class for the {@link PasswordHashingScheduler}.
+ */
+class PasswordHashingSchedulerUnitTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private PasswordHashingScheduler passwordHashingScheduler;
+
+    @BeforeEach
+    public void setup() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getPasswordHashing().setPoolSize(1);
+        applicationProperties.getPasswordHashing().setQueueCapacity(1);
+        meterRegistry = new SimpleMeterRegistry();
+        passwordHashingScheduler = new PasswordHashingScheduler(applicationProperties, meterRegistry);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        passwordHashingScheduler.destroy();
+    }
+
+    @Test
+    void testHashesRunOnTheHashingThreads() {
+        String thread = Mono.fromCallable(() -> Thread.currentThread().getName()).subscribeOn(passwordHashingScheduler.get()).block();
+
+        assertThat(thread).startsWith("password-hashing-");
+    }
+
+    @Test
+    void testHashesAreRejectedWhenTheQueueIsFull() throws InterruptedException {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Mono<Boolean> blocking = Mono
+            .fromCallable(
+                () -> {
+                    running.countDown();
+                    return release.await(10, TimeUnit.SECONDS);
+                }
+            )
+            .subscribeOn(passwordHashingScheduler.get());
+        blocking.subscribe();
+        running.await();
+        blocking.subscribe();
+
+        assertThat(meterRegistry.get("executor.queued").tag("name", PasswordHashingScheduler.NAME).gauge().value()).isEqualTo(1);
+        assertThatExceptionOfType(RejectedExecutionException.class).isThrownBy(() -> blocking.block(Duration.ofSeconds(1)));
+        release.countDown();
+    }
+}
@@ -2,11 +2,14 @@ package com.github.ghrocs.security.jwt;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.ghrocs.config.ApplicationProperties;
 import com.github.ghrocs.security.AuthoritiesConstants;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
 import java.util.*;
@@ -24,6 +27,7 @@ class TokenProviderTest {
     private static final long ONE_MINUTE = 60000;
 
     private Key key;
+    private SimpleMeterRegistry meterRegistry;
     private TokenProvider tokenProvider;
 
     @BeforeEach
@@ -31,7 +35,8 @@ class TokenProviderTest {
         JHipsterProperties jHipsterProperties = new JHipsterProperties();
         String base64Secret = "fd54a45s65fds737b9aafcb3412e07ed99b267f33413274720ddbb7f6c5e64e9f14075f2d7ed041592f0b7657baf8";
         jHipsterProperties.getSecurity().getAuthentication().getJwt().setBase64Secret(base64Secret);
-        tokenProvider = new TokenProvider(jHipsterProperties);
+        meterRegistry = new SimpleMeterRegistry();
+        tokenProvider = new TokenProvider(jHipsterProperties, new ApplicationProperties(), meterRegistry);
         key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret));
 
         ReflectionTestUtils.setField(tokenProvider, "key", key);
@@ -40,9 +45,7 @@ class TokenProviderTest {
 
     @Test
     void testReturnFalseWhenJWThasInvalidSignature() {
-        boolean isTokenValid = tokenProvider.validateToken(createTokenWithDifferentSignature());
-
-        assertThat(isTokenValid).isFalse();
+        assertThat(tokenProvider.getValidAuthentication(createTokenWithDifferentSignature())).isEmpty();
     }
 
     @Test
@@ -50,9 +53,7 @@ class TokenProviderTest {
         Authentication authentication = createAuthentication();
         String token = tokenProvider.createToken(authentication, false);
         String invalidToken = token.substring(1);
-        boolean isTokenValid = tokenProvider.validateToken(invalidToken);
-
-        assertThat(isTokenValid).isFalse();
+        assertThat(tokenProvider.getValidAuthentication(invalidToken)).isEmpty();
     }
 
     @Test
@@ -62,25 +63,76 @@ class TokenProviderTest {
         Authentication authentication = createAuthentication();
         String token = tokenProvider.createToken(authentication, false);
 
-        boolean isTokenValid = tokenProvider.validateToken(token);
-
-        assertThat(isTokenValid).isFalse();
+        assertThat(tokenProvider.getValidAuthentication(token)).isEmpty();
     }
 
     @Test
     void testReturnFalseWhenJWTisUnsupported() {
         String unsupportedToken = createUnsupportedToken();
 
-        boolean isTokenValid = tokenProvider.validateToken(unsupportedToken);
-
-        assertThat(isTokenValid).isFalse();
+        assertThat(tokenProvider.getValidAuthentication(unsupportedToken)).isEmpty();
     }
 
     @Test
     void testReturnFalseWhenJWTisInvalid() {
-        boolean isTokenValid = tokenProvider.validateToken("");
+        assertThat(tokenProvider.getValidAuthentication("")).isEmpty();
+    }
+
+    @Test
+    void testValidTokenIsVerifiedOnce() {
+        String token = tokenProvider.createToken(createAuthentication(), false);
+
+        Optional<Authentication> first = tokenProvider.getValidAuthentication(token);
+        Optional<Authentication> second = tokenProvider.getValidAuthentication(token);
+
+        assertThat(first).isPresent();
+        assertThat(first.get().getName()).isEqualTo("anonymous");
+        assertThat(first.get().getCredentials()).isEqualTo(token);
+        assertThat(first.get().getAuthorities()).extracting(GrantedAuthority::getAuthority).containsExactly(AuthoritiesConstants.ANONYMOUS);
+        assertThat(second).isPresent();
+        assertThat(second.get()).isNotSameAs(first.get());
+        assertThat(second.get().getName()).isEqualTo("anonymous");
+        assertThat(second.get().getAuthorities())
+            .extracting(GrantedAuthority::getAuthority)
+            .containsExactly(AuthoritiesConstants.ANONYMOUS);
+        assertThat(verifications("valid")).isEqualTo(1);
+    }
+
+    @Test
+    void testCachedAuthenticationIsNotShared() {
+        String token = tokenProvider.createToken(createAuthentication(), false);
+
+        tokenProvider.getValidAuthentication(token).get().setAuthenticated(false);
 
-        assertThat(isTokenValid).isFalse();
+        assertThat(tokenProvider.getValidAuthentication(token).get().isAuthenticated()).isTrue();
+    }
+
+    @Test
+    void testCacheDoesNotKeepTheToken() {
+        String token = tokenProvider.createToken(createAuthentication(), false);
+
+        tokenProvider.getValidAuthentication(token);
+
+        Cache<Object, ?> authentications = (Cache<Object, ?>) ReflectionTestUtils.getField(tokenProvider, "authentications");
+        assertThat(authentications.asMap()).hasSize(1).doesNotContainKey(token);
+    }
+
+    @Test
+    void testInvalidTokenIsVerifiedEveryTime() {
+        String token = createTokenWithDifferentSignature();
+
+        assertThat(tokenProvider.getValidAuthentication(token)).isEmpty();
+        assertThat(tokenProvider.getValidAuthentication(token)).isEmpty();
+        assertThat(verifications("invalid")).isEqualTo(2);
+    }
+
+    @Test
+    void testExpiredTokenIsNotCached() {
+        ReflectionTestUtils.setField(tokenProvider, "tokenValidityInMilliseconds", -ONE_MINUTE);
+        String token = tokenProvider.createToken(createAuthentication(), false);
+
+        assertThat(tokenProvider.getValidAuthentication(token)).isEmpty();
+        assertThat(verifications("valid")).isZero();
     }
 
     @Test
@@ -89,7 +141,7 @@ class TokenProviderTest {
         JHipsterProperties jHipsterProperties = new JHipsterProperties();
         jHipsterProperties.getSecurity().getAuthentication().getJwt().setSecret(secret);
 
-        TokenProvider tokenProvider = new TokenProvider(jHipsterProperties);
+        TokenProvider tokenProvider = new TokenProvider(jHipsterProperties, new ApplicationProperties(), new SimpleMeterRegistry());
 
         Key key = (Key) ReflectionTestUtils.getField(tokenProvider, "key");
         assertThat(key).isNotNull().isEqualTo(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)));
@@ -101,12 +153,16 @@ class TokenProviderTest {
         JHipsterProperties jHipsterProperties = new JHipsterProperties();
         jHipsterProperties.getSecurity().getAuthentication().getJwt().setBase64Secret(base64Secret);
 
-        TokenProvider tokenProvider = new TokenProvider(jHipsterProperties);
+        TokenProvider tokenProvider = new TokenProvider(jHipsterProperties, new ApplicationProperties(), new SimpleMeterRegistry());
 
         Key key = (Key) ReflectionTestUtils.getField(tokenProvider, "key");
         assertThat(key).isNotNull().isEqualTo(Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret)));
     }
 
+    private long verifications(String result) {
+        return meterRegistry.get(TokenProvider.VERIFICATION_TIMER).tag("result", result).timer().count();
+    }
+
     private Authentication createAuthentication() {
         Collection<GrantedAuthority> authorities = new ArrayList<>();
         authorities.add(new SimpleGrantedAuthority(AuthoritiesConstants.ANONYMOUS));
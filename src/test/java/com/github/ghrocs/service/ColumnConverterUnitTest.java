@@ -0,0 +1,142 @@
+package com.github.ghrocs.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.github.ghrocs.domain.enumeration.Language;
+import io.r2dbc.spi.Row;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.data.r2dbc.convert.MappingR2dbcConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.dialect.H2Dialect;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+
+/**
+ * Test class for the {@link ColumnConverter}.
+ */
+class ColumnConverterUnitTest {
+
+    private ColumnConverter converter;
+
+    @BeforeEach
+    public void setup() {
+        R2dbcCustomConversions conversions = R2dbcCustomConversions.of(H2Dialect.INSTANCE);
+        converter = new ColumnConverter(conversions, new MappingR2dbcConverter(new R2dbcMappingContext(), conversions));
+    }
+
+    @Test
+    void testEnumsAreConvertedWithoutAskingTheDriver() {
+        Row row = mock(Row.class);
+        when(row.get("e_language")).thenReturn("FRENCH", "SPANISH");
+
+        assertThat(converter.fromRow(row, "e_language", Language.class)).isEqualTo(Language.FRENCH);
+        assertThat(converter.fromRow(row, "e_language", Language.class)).isEqualTo(Language.SPANISH);
+
+        verify(row, never()).get(anyString(), ArgumentMatchers.<Class<Object>>any());
+    }
+
+    @Test
+    void testUnknownEnumConstantIsRejected() {
+        Row row = mock(Row.class);
+        when(row.get("e_language")).thenReturn("GERMAN");
+
+        assertThatThrownBy(() -> converter.fromRow(row, "e_language", Language.class)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testDriverFailureIsOnlyPaidOnce() {
+        LocalDateTime value = LocalDateTime.of(2020, 1, 1, 0, 0);
+        Row row = mock(Row.class);
+        when(row.get("e_created_date", Instant.class)).thenThrow(new IllegalArgumentException("unsupported"));
+        when(row.get("e_created_date")).thenReturn(value);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(converter.fromRow(row, "e_created_date", Instant.class)).isEqualTo(value.atZone(ZoneId.systemDefault()).toInstant());
+        }
+
+        verify(row, times(1)).get("e_created_date", Instant.class);
+        verify(row, times(3)).get("e_created_date");
+    }
+
+    @Test
+    void testDriverIsAskedDirectlyWhenItReadsTheType() {
+        Row row = mock(Row.class);
+        when(row.get("e_login", String.class)).thenReturn("user");
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(converter.fromRow(row, "e_login", String.class)).isEqualTo("user");
+        }
+
+        verify(row, times(3)).get("e_login", String.class);
+        verify(row, never()).get("e_login");
+    }
+
+    @Test
+    void testNullColumnIsReadAsNullWhateverTheAccess() {
+        Row row = mock(Row.class);
+        when(row.get("e_login", String.class)).thenReturn(null);
+        when(row.get("e_created_date", Instant.class)).thenThrow(new IllegalArgumentException("unsupported"));
+        when(row.get("e_created_date")).thenReturn(null);
+        when(row.get("e_language")).thenReturn(null);
+
+        assertThat(converter.fromRow(row, "e_login", String.class)).isNull();
+        assertThat(converter.fromRow(row, "e_created_date", Instant.class)).isNull();
+        assertThat(converter.fromRow(row, "e_created_date", Instant.class)).isNull();
+        assertThat(converter.fromRow(row, "e_language", Language.class)).isNull();
+
+        verify(row, times(1)).get("e_created_date", Instant.class);
+    }
+
+    @Test
+    void testNullColumnDoesNotDecideTheAccess() {
+        LocalDateTime value = LocalDateTime.of(2020, 1, 1, 0, 0);
+        Row row = mock(Row.class);
+        // the driver reads a null of any type, its failure only shows with the first value
+        when(row.get("e_created_date", Instant.class)).thenReturn(null).thenThrow(new IllegalArgumentException("unsupported"));
+        when(row.get("e_created_date")).thenReturn(value);
+
+        assertThat(converter.fromRow(row, "e_created_date", Instant.class)).isNull();
+        for (int i = 0; i < 2; i++) {
+            assertThat(converter.fromRow(row, "e_created_date", Instant.class)).isEqualTo(value.atZone(ZoneId.systemDefault()).toInstant());
+        }
+
+        verify(row, times(2)).get("e_created_date", Instant.class);
+        verify(row, times(2)).get("e_created_date");
+    }
+
+    @Test
+    void testAccessIsRememberedPerTargetType() {
+        LocalDateTime value = LocalDateTime.of(2020, 1, 1, 0, 0);
+        Row row = mock(Row.class);
+        when(row.get("e_created_date", Instant.class)).thenThrow(new IllegalArgumentException("unsupported"));
+        when(row.get("e_created_date", LocalDateTime.class)).thenReturn(value);
+        when(row.get("e_created_date")).thenReturn(value);
+
+        converter.fromRow(row, "e_created_date", Instant.class);
+        for (int i = 0; i < 2; i++) {
+            assertThat(converter.fromRow(row, "e_created_date", LocalDateTime.class)).isEqualTo(value);
+        }
+
+        verify(row, times(2)).get("e_created_date", LocalDateTime.class);
+        verify(row, times(1)).get("e_created_date");
+    }
+
+    @Test
+    void testValueIsConvertedOnlyWhenItIsNotOfTheTargetType() {
+        assertThat(converter.convert("user", String.class)).isEqualTo("user");
+        assertThat(converter.convert(null, Long.class)).isNull();
+        assertThat(converter.convert("42", Long.class)).isEqualTo(42L);
+        assertThat(converter.convert("ENGLISH", Language.class)).isEqualTo(Language.ENGLISH);
+    }
+}
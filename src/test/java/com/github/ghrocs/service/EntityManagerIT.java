@@ -0,0 +1,264 @@
+package com.github.ghrocs.service;
+
+import static org.assertj.core.api.Assertions.as;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.InstanceOfAssertFactories.STRING;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.github.ghrocs.IntegrationTest;
+import com.github.ghrocs.domain.Country;
+import com.github.ghrocs.domain.enumeration.Language;
+import com.github.ghrocs.repository.CountryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.dialect.H2Dialect;
+import org.springframework.data.r2dbc.dialect.PostgresDialect;
+import org.springframework.data.r2dbc.dialect.R2dbcDialect;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.sql.Column;
+import org.springframework.data.relational.core.sql.Select;
+import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoin;
+import org.springframework.data.relational.core.sql.Table;
+import org.springframework.r2dbc.connection.SingleConnectionFactory;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.PreparedOperation;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Integration tests for {@link EntityManager}.
+ */
+@IntegrationTest
+class EntityManagerIT {
+
+    private static final Table countryTable = Table.aliased("country", EntityManager.ENTITY_ALIAS);
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CountryRepository countryRepository;
+
+    @Autowired
+    private ConnectionFactory connectionFactory;
+
+    @Autowired
+    private R2dbcDialect dialect;
+
+    @Autowired
+    private DatabaseClient db;
+
+    @Test
+    void assertThatSelectsOfTheSameShapeAreRenderedOnce() {
+        String selectName = "statementCacheTest";
+        double hitsBefore = statementCacheGets("hit");
+        double missesBefore = statementCacheGets("miss");
+
+        String first = entityManager
+            .createSelect(
+                selectName,
+                EntityManagerIT::createSelectFrom,
+                Country.class,
+                PageRequest.of(0, 10, Sort.by("countryName")),
+                Criteria.where("id").is(1L)
+            )
+            .toQuery();
+        String second = entityManager
+            .createSelect(
+                selectName,
+                EntityManagerIT::createSelectFrom,
+                Country.class,
+                PageRequest.of(3, 20, Sort.by("countryName")),
+                Criteria.where("id").is(2L)
+            )
+            .toQuery();
+
+        assertThat(second).isSameAs(first);
+        assertThat(first).doesNotContain("'").contains("LIMIT").contains("OFFSET");
+        assertThat(statementCacheGets("miss")).isEqualTo(missesBefore + 1);
+        assertThat(statementCacheGets("hit")).isEqualTo(hitsBefore + 1);
+    }
+
+    @Test
+    void assertThatSelectsOfAnotherShapeAreRenderedSeparately() {
+        String selectName = "statementCacheShapeTest";
+
+        String byId = entityManager
+            .createSelect(selectName, EntityManagerIT::createSelectFrom, Country.class, (Pageable) null, Criteria.where("id").is(1L))
+            .toQuery();
+        String byIds = entityManager
+            .createSelect(selectName, EntityManagerIT::createSelectFrom, Country.class, (Pageable) null, Criteria.where("id").in(1L, 2L))
+            .toQuery();
+        String sorted = entityManager
+            .createSelect(selectName, EntityManagerIT::createSelectFrom, Country.class, PageRequest.of(0, 10, Sort.by("id")), null)
+            .toQuery();
+
+        assertThat(byId).isNotEqualTo(byIds).isNotEqualTo(sorted);
+        assertThat(byIds).isNotEqualTo(sorted);
+    }
+
+    @Test
+    void assertThatCriteriaValuesAreBoundInsteadOfInlined() {
+        String countryName = "Cote d'Ivoire";
+        Country country = countryRepository.save(new Country().countryName(countryName)).block();
+
+        try {
+            PreparedOperation<String> select = entityManager.createSelect(
+                "boundCriteriaTest",
+                EntityManagerIT::createSelectFrom,
+                Country.class,
+                (Pageable) null,
+                Criteria.where("countryName").is(countryName)
+            );
+            List<Country> countries = countryRepository
+                .findAllBy(PageRequest.of(0, 10), Criteria.where("countryName").is(countryName))
+                .collectList()
+                .block();
+
+            assertThat(select.toQuery()).doesNotContain(countryName).doesNotContain("'");
+            assertThat(countries).extracting(Country::getId).containsExactly(country.getId());
+        } finally {
+            countryRepository.deleteById(country.getId()).block();
+        }
+    }
+
+    @Test
+    void assertThatOnlyTheColumnPropertiesAreSortable() {
+        assertThat(entityManager.getColumnProperties(Country.class))
+            .containsExactlyInAnyOrder("id", "countryName", "language", "regionId", "version")
+            .doesNotContain("region");
+    }
+
+    @Test
+    void assertThatUpdateNonNullColumnsReturnsTheUpdatedRow() {
+        Country country = countryRepository.save(new Country().countryName("France").language(Language.FRENCH)).block();
+
+        try {
+            Country updated = countryRepository
+                .updateNonNullFields(new Country().id(country.getId()).countryName("French Republic").version(country.getVersion()))
+                .block();
+
+            assertThat(updated.getCountryName()).isEqualTo("French Republic");
+            assertThat(updated.getLanguage()).isEqualTo(Language.FRENCH);
+            assertThat(updated.getVersion()).isEqualTo(country.getVersion() + 1);
+            // the version the patch was read at doesn't match anymore
+            assertThat(
+                countryRepository
+                    .updateNonNullFields(new Country().id(country.getId()).countryName("France").version(country.getVersion()))
+                    .blockOptional()
+            )
+                .isEmpty();
+        } finally {
+            countryRepository.deleteById(country.getId()).block();
+        }
+    }
+
+    @Test
+    void assertThatUpdateNonNullColumnsRunsASingleStatement() {
+        assumeTrue(dialect instanceof H2Dialect, "the query statistics are read from H2");
+        Country country = countryRepository.save(new Country().countryName("France")).block();
+
+        db.sql("SET QUERY_STATISTICS FALSE").then().block();
+        db.sql("SET QUERY_STATISTICS TRUE").then().block();
+        List<String> statements;
+        try {
+            countryRepository
+                .updateNonNullFields(new Country().id(country.getId()).countryName("French Republic").version(country.getVersion()))
+                .block();
+
+            statements =
+                db
+                    .sql(
+                        "SELECT sql_statement FROM information_schema.query_statistics " +
+                        "WHERE sql_statement LIKE '%country%' AND sql_statement NOT LIKE '%query_statistics%'"
+                    )
+                    .map(row -> row.get("sql_statement", String.class))
+                    .all()
+                    .collectList()
+                    .block();
+        } finally {
+            db.sql("SET QUERY_STATISTICS FALSE").then().block();
+            countryRepository.deleteById(country.getId()).block();
+        }
+
+        assertThat(statements).singleElement(as(STRING)).startsWith("UPDATE");
+    }
+
+    /**
+     * Selects the countries by id, one id after the other, on a single PostgreSQL connection, and checks that the driver prepared the
+     * statement only once: its plan is reused for every id. Only runs against PostgreSQL, with the {@code testcontainers} profile.
+     */
+    @Test
+    void assertThatPostgresqlPreparesTheStatementOnce() {
+        assumeTrue(dialect instanceof PostgresDialect && !(dialect instanceof H2Dialect), "requires PostgreSQL");
+        String selectName = "preparedStatementTest";
+        int selects = 100;
+
+        Long prepared = Mono
+            .usingWhen(
+                Mono.from(connectionFactory.create()),
+                connection -> {
+                    DatabaseClient client = DatabaseClient.create(singleConnectionFactory(connection));
+                    String sql = entityManager
+                        .createSelect(
+                            selectName,
+                            EntityManagerIT::createSelectFrom,
+                            Country.class,
+                            (Pageable) null,
+                            Criteria.where("id").is(0L)
+                        )
+                        .toQuery();
+                    return Flux
+                        .range(1, selects)
+                        .concatMap(
+                            id ->
+                                client
+                                    .sql(
+                                        entityManager.createSelect(
+                                            selectName,
+                                            EntityManagerIT::createSelectFrom,
+                                            Country.class,
+                                            (Pageable) null,
+                                            Criteria.where("id").is(id.longValue())
+                                        )
+                                    )
+                                    .fetch()
+                                    .all()
+                        )
+                        .then(
+                            client
+                                .sql("SELECT count(*) AS prepared FROM pg_prepared_statements WHERE statement = :sql")
+                                .bind("sql", sql)
+                                .map(row -> row.get("prepared", Long.class))
+                                .one()
+                        );
+                },
+                Connection::close
+            )
+            .block();
+
+        assertThat(prepared).isEqualTo(1L);
+    }
+
+    private static SingleConnectionFactory singleConnectionFactory(Connection connection) {
+        return new SingleConnectionFactory(connection, () -> "PostgreSQL", true);
+    }
+
+    private double statementCacheGets(String result) {
+        return meterRegistry.get("cache.gets").tag("cache", "entityManager.statements").tag("result", result).functionCounter().count();
+    }
+
+    private static SelectFromAndJoin createSelectFrom() {
+        return Select.builder().select(Column.aliased("id", countryTable, "e_id")).from(countryTable);
+    }
+}
@@ -0,0 +1,80 @@
+package com.github.ghrocs.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.ghrocs.IntegrationTest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+/**
+ * Integration tests for {@link JobLeases}.
+ */
+@IntegrationTest
+class JobLeasesIT {
+
+    private static final String JOB = "test-job";
+
+    private static final Duration LEASE = Duration.ofMinutes(1);
+
+    @Autowired
+    private DatabaseClient db;
+
+    @Autowired
+    private JobLeases jobLeases;
+
+    @BeforeEach
+    public void init() {
+        db.sql("DELETE FROM jhi_job_lease").then().block();
+    }
+
+    @Test
+    void testJobRunsWhenTheLeaseIsFree() {
+        assertThat(jobLeases.runExclusively(JOB, LEASE, Duration.ZERO, Mono.just("done")).block()).isEqualTo("done");
+        // released once the job completes
+        assertThat(jobLeases.runExclusively(JOB, LEASE, Duration.ZERO, Mono.just("again")).block()).isEqualTo("again");
+    }
+
+    @Test
+    void testJobIsSkippedWhileTheLeaseIsHeld() {
+        String skipped = jobLeases
+            .runExclusively(JOB, LEASE, Duration.ZERO, jobLeases.runExclusively(JOB, LEASE, Duration.ZERO, Mono.just("nested")))
+            .block();
+
+        assertThat(skipped).isNull();
+    }
+
+    @Test
+    void testJobIsSkippedWhileAnotherInstanceHoldsTheLease() {
+        db
+            .sql("INSERT INTO jhi_job_lease (name, locked_until, locked_by) VALUES (:name, :until, 'other')")
+            .bind("name", JOB)
+            .bind("until", LocalDateTime.now(ZoneOffset.UTC).plus(LEASE))
+            .then()
+            .block();
+
+        assertThat(jobLeases.runExclusively(JOB, LEASE, Duration.ZERO, Mono.just("done")).block()).isNull();
+        assertThat(db.sql("SELECT locked_by FROM jhi_job_lease WHERE name = :name").bind("name", JOB).map(row -> row.get(0)).one().block())
+            .isEqualTo("other");
+    }
+
+    @Test
+    void testLeaseIsHeldAtLeastTheMinimumDuration() {
+        assertThat(jobLeases.runExclusively(JOB, LEASE, LEASE, Mono.just("done")).block()).isEqualTo("done");
+
+        assertThat(jobLeases.runExclusively(JOB, LEASE, Duration.ZERO, Mono.just("again")).block()).isNull();
+    }
+
+    @Test
+    void testLeaseIsReleasedWhenTheJobFails() {
+        Mono<String> failure = Mono.error(new IllegalStateException("test"));
+        assertThat(jobLeases.runExclusively(JOB, LEASE, Duration.ZERO, failure).onErrorReturn("failed").block()).isEqualTo("failed");
+
+        assertThat(jobLeases.runExclusively(JOB, LEASE, Duration.ZERO, Mono.just("again")).block()).isEqualTo("again");
+    }
+}
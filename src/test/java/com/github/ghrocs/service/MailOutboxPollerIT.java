@@ -0,0 +1,175 @@
+package com.github.ghrocs.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import com.github.ghrocs.IntegrationTest;
+import com.github.ghrocs.config.Constants;
+import com.github.ghrocs.domain.OutboxMail;
+import com.github.ghrocs.domain.User;
+import com.github.ghrocs.domain.enumeration.MailTemplate;
+import com.github.ghrocs.repository.OutboxMailRepository;
+import com.github.ghrocs.repository.UserRepository;
+import com.github.ghrocs.service.dto.AdminUserDTO;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Integration tests for the {@link MailOutboxPoller}.
+ */
+@IntegrationTest
+class MailOutboxPollerIT {
+
+    private static final String DEFAULT_LOGIN = "outbox-user";
+
+    private static final String DEFAULT_EMAIL = "outbox-user@localhost";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OutboxMailRepository outboxMailRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private MailService mailService;
+
+    @Autowired
+    private MailOutboxPoller mailOutboxPoller;
+
+    @BeforeEach
+    public void init() {
+        outboxMailRepository.deleteAll().block();
+        userRepository.deleteAllUserAuthorities().block();
+        userRepository.deleteAll().block();
+        clearInvocations(mailService);
+        // the email is sent as soon as it's queued
+        doAnswer(
+                invocation -> {
+                    invocation.<Runnable>getArgument(2).run();
+                    return true;
+                }
+            )
+            .when(mailService)
+            .sendEmail(any(), any(), any());
+    }
+
+    @Test
+    void testActivationEmailIsSentFromTheOutbox() {
+        AdminUserDTO userDTO = new AdminUserDTO();
+        userDTO.setLogin(DEFAULT_LOGIN);
+        userDTO.setEmail(DEFAULT_EMAIL);
+        userDTO.setLangKey(Constants.DEFAULT_LANGUAGE);
+        userService.registerUser(userDTO, "password").block();
+
+        assertThat(outboxMailRepository.findAll().collectList().block())
+            .extracting(OutboxMail::getTemplate)
+            .containsExactly(MailTemplate.ACTIVATION);
+        verifyNoInteractions(mailService);
+
+        assertThat(mailOutboxPoller.pollReactively().block()).isEqualTo(1);
+        verify(mailService).sendEmail(argThat(user -> DEFAULT_LOGIN.equals(user.getLogin())), eq(MailTemplate.ACTIVATION), any());
+        awaitEmptyOutbox();
+        assertThat(mailOutboxPoller.pollReactively().block()).isZero();
+    }
+
+    @Test
+    void testPasswordResetEmailIsSentFromTheOutbox() {
+        User user = new User();
+        user.setLogin(DEFAULT_LOGIN);
+        user.setEmail(DEFAULT_EMAIL);
+        user.setPassword(RandomStringUtils.random(60));
+        user.setActivated(true);
+        user.setCreatedBy(Constants.SYSTEM);
+        userRepository.save(user).block();
+
+        userService.requestPasswordReset(DEFAULT_EMAIL).block();
+
+        assertThat(mailOutboxPoller.pollReactively().block()).isEqualTo(1);
+        verify(mailService).sendEmail(argThat(resetUser -> resetUser.getResetKey() != null), eq(MailTemplate.PASSWORD_RESET), any());
+        awaitEmptyOutbox();
+    }
+
+    @Test
+    void testEmailIsKeptInTheOutboxUntilItIsSent() {
+        AtomicReference<Runnable> onSent = new AtomicReference<>();
+        doAnswer(
+                invocation -> {
+                    onSent.set(invocation.getArgument(2));
+                    return true;
+                }
+            )
+            .when(mailService)
+            .sendEmail(any(), any(), any());
+        registerUser();
+
+        assertThat(mailOutboxPoller.pollReactively().block()).isEqualTo(1);
+        // queued, and locked meanwhile
+        assertThat(outboxMailRepository.count().block()).isEqualTo(1);
+        assertThat(mailOutboxPoller.pollReactively().block()).isZero();
+
+        onSent.get().run();
+        awaitEmptyOutbox();
+    }
+
+    @Test
+    void testScheduledPollMovesTheEmailsInTheBackground() {
+        registerUser();
+
+        mailOutboxPoller.poll();
+
+        awaitEmptyOutbox();
+        verify(mailService).sendEmail(argThat(user -> DEFAULT_LOGIN.equals(user.getLogin())), eq(MailTemplate.ACTIVATION), any());
+    }
+
+    @Test
+    void testRejectedEmailIsMovedAgain() {
+        doReturn(false).when(mailService).sendEmail(any(), any(), any());
+        registerUser();
+
+        assertThat(mailOutboxPoller.pollReactively().block()).isEqualTo(1);
+        assertThat(mailOutboxPoller.pollReactively().block()).isEqualTo(1);
+        assertThat(outboxMailRepository.count().block()).isEqualTo(1);
+    }
+
+    @Test
+    void testEmailsAreDeletedWithTheirUser() {
+        User user = registerUser();
+
+        userRepository.delete(user).block();
+
+        assertThat(outboxMailRepository.count().block()).isZero();
+    }
+
+    private User registerUser() {
+        AdminUserDTO userDTO = new AdminUserDTO();
+        userDTO.setLogin(DEFAULT_LOGIN);
+        userDTO.setEmail(DEFAULT_EMAIL);
+        return userService.registerUser(userDTO, "password").block();
+    }
+
+    /**
+     * Waits for the deletion of the sent emails, which completes after the poll.
+     */
+    private void awaitEmptyOutbox() {
+        Long count = outboxMailRepository
+            .count()
+            .filter(c -> c == 0)
+            .repeatWhenEmpty(100, repeats -> repeats.delayElements(Duration.ofMillis(10)))
+            .block();
+        assertThat(count).isZero();
+    }
+}
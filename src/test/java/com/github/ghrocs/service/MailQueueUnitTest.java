@@ -0,0 +1,146 @@
+package com.github.ghrocs.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.ghrocs.config.ApplicationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+/**
+ * Test class for the {@link MailQueue}, against a {@link LocalSmtpServer}.
+ */
+class MailQueueUnitTest {
+
+    private LocalSmtpServer smtpServer;
+
+    private JavaMailSenderImpl javaMailSender;
+
+    private ApplicationProperties applicationProperties;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private MailQueue mailQueue;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        smtpServer = new LocalSmtpServer();
+        javaMailSender = new JavaMailSenderImpl();
+        javaMailSender.setHost("localhost");
+        javaMailSender.setPort(smtpServer.getPort());
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getMailQueue().setBatchSize(5);
+        applicationProperties.getMailQueue().setFlushInterval(Duration.ofMillis(500));
+        applicationProperties.getMailQueue().setMaxAttempts(2);
+        applicationProperties.getMailQueue().setBackoff(Duration.ofMillis(10));
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        mailQueue.destroy();
+        smtpServer.close();
+    }
+
+    @Test
+    void testBatchIsSentOverASingleConnection() throws Exception {
+        mailQueue = new MailQueue(javaMailSender, applicationProperties, meterRegistry);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(mailQueue.enqueue("user" + i + "@localhost", message("user" + i + "@localhost"))).isTrue();
+        }
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(smtpServer.nextMessage()).isNotNull();
+        }
+        mailQueue.destroy();
+        assertThat(smtpServer.getConnections()).isEqualTo(1);
+        assertThat(meterRegistry.get(MailQueue.DELIVERY_TIMER).tag("result", "sent").timer().count()).isEqualTo(5);
+        assertThat(meterRegistry.get(MailQueue.SIZE_GAUGE).gauge().value()).isZero();
+    }
+
+    @Test
+    void testFailedEmailsAreSentAgain() throws Exception {
+        mailQueue = new MailQueue(javaMailSender, applicationProperties, meterRegistry);
+        smtpServer.failNext(1);
+
+        for (int i = 0; i < 5; i++) {
+            mailQueue.enqueue("user" + i + "@localhost", message("user" + i + "@localhost"));
+        }
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(smtpServer.nextMessage()).isNotNull();
+        }
+        assertThat(smtpServer.nextMessage()).isNull();
+        mailQueue.destroy();
+        assertThat(meterRegistry.get(MailQueue.DELIVERY_TIMER).tag("result", "sent").timer().count()).isEqualTo(5);
+    }
+
+    @Test
+    void testEmailsAreDroppedAfterTheLastAttempt() throws Exception {
+        mailQueue = new MailQueue(javaMailSender, applicationProperties, meterRegistry);
+        smtpServer.failNext(2);
+
+        mailQueue.enqueue("user@localhost", message("user@localhost"));
+
+        mailQueue.destroy();
+        assertThat(smtpServer.getConnections()).isEqualTo(2);
+        assertThat(meterRegistry.get(MailQueue.DELIVERY_TIMER).tag("result", "failed").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testEmailsAreRejectedWhenTheQueueIsFull() throws Exception {
+        applicationProperties.getMailQueue().setCapacity(1);
+        applicationProperties.getMailQueue().setBatchSize(1);
+        mailQueue = new MailQueue(javaMailSender, applicationProperties, meterRegistry);
+        CountDownLatch release = new CountDownLatch(1);
+
+        assertThat(
+            mailQueue.enqueue(
+                "user@localhost",
+                () -> {
+                    release.await(10, TimeUnit.SECONDS);
+                    return message("user@localhost").call();
+                }
+            )
+        )
+            .isTrue();
+        assertThat(mailQueue.enqueue("other@localhost", message("other@localhost"))).isFalse();
+
+        assertThat(meterRegistry.get(MailQueue.REJECTED_COUNTER).counter().count()).isEqualTo(1);
+        release.countDown();
+        assertThat(smtpServer.nextMessage().getAllRecipients()[0]).hasToString("user@localhost");
+    }
+
+    @Test
+    void testEmailsAreRejectedAfterTheShutdown() throws Exception {
+        mailQueue = new MailQueue(javaMailSender, applicationProperties, meterRegistry);
+        mailQueue.destroy();
+
+        assertThat(mailQueue.enqueue("user@localhost", message("user@localhost"))).isFalse();
+
+        assertThat(meterRegistry.get(MailQueue.REJECTED_COUNTER).counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(MailQueue.SIZE_GAUGE).gauge().value()).isZero();
+        assertThat(smtpServer.getConnections()).isZero();
+    }
+
+    private Callable<MimeMessage> message(String to) {
+        return () -> {
+            MimeMessage mimeMessage = javaMailSender.createMimeMessage();
+            MimeMessageHelper message = new MimeMessageHelper(mimeMessage);
+            message.setTo(to);
+            message.setFrom("test@localhost");
+            message.setSubject("testSubject");
+            message.setText("testContent");
+            return mimeMessage;
+        };
+    }
+}
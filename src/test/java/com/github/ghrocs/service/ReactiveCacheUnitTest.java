@@ -0,0 +1,75 @@
+package com.github.ghrocs.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+/**
+ * Test class for the {@link ReactiveCache}.
+ */
+class ReactiveCacheUnitTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ReactiveCache<Long, String> cache;
+
+    private AtomicInteger loads;
+
+    private Function<Long, Mono<String>> loader;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new ReactiveCache<>("test", 10, Duration.ofMinutes(1), meterRegistry);
+        loads = new AtomicInteger();
+        loader =
+            key -> {
+                loads.incrementAndGet();
+                return key == 0 ? Mono.empty() : Mono.just("value" + key).delayElement(Duration.ofMillis(20));
+            };
+    }
+
+    @Test
+    void testConcurrentReadsShareTheLoad() {
+        assertThat(Mono.zip(cache.get(1L, loader), cache.get(1L, loader)).block().toList()).containsExactly("value1", "value1");
+        assertThat(cache.get(1L, loader).block()).isEqualTo("value1");
+        assertThat(loads).hasValue(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "test").tag("result", "hit").functionCounter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void testEmptyLoadIsNotCached() {
+        assertThat(cache.get(0L, loader).block()).isNull();
+        assertThat(cache.get(0L, loader).block()).isNull();
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void testInvalidate() {
+        cache.get(1L, loader).block();
+        cache.get(2L, loader).block();
+
+        cache.invalidate(1L).block();
+        cache.get(1L, loader).block();
+        cache.get(2L, loader).block();
+        assertThat(loads).hasValue(3);
+
+        cache.invalidateAll().block();
+        cache.get(1L, loader).block();
+        cache.get(2L, loader).block();
+        assertThat(loads).hasValue(5);
+    }
+
+    @Test
+    void testCancelledReadDoesNotCancelTheLoad() {
+        cache.get(1L, loader).timeout(Duration.ofMillis(1), Mono.just("timeout")).block();
+        assertThat(cache.get(1L, loader).block()).isEqualTo("value1");
+        assertThat(loads).hasValue(1);
+    }
+}
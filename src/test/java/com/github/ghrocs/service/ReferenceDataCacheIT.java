@@ -0,0 +1,76 @@
+package com.github.ghrocs.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.ghrocs.IntegrationTest;
+import com.github.ghrocs.service.dto.CountryDTO;
+import com.github.ghrocs.service.dto.RegionDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Integration tests for the caches of the regions and the countries, which the other tests turn off.
+ */
+@IntegrationTest
+@TestPropertySource(properties = "application.cache.reference-data.time-to-live=10m")
+class ReferenceDataCacheIT {
+
+    @Autowired
+    private RegionService regionService;
+
+    @Autowired
+    private CountryService countryService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void testCachedRegionsAndCountriesAreReadAgainAfterTheirWrites() {
+        RegionDTO region = new RegionDTO();
+        region.setRegionName("Europe");
+        region = regionService.save(region).block();
+        CountryDTO country = new CountryDTO();
+        country.setCountryName("France");
+        country.setRegion(region);
+        country = countryService.save(country).block();
+
+        try {
+            double regionHits = cacheGets("regions", "hit");
+            double countryHits = cacheGets("countries", "hit");
+            for (int i = 0; i < 2; i++) {
+                assertThat(regionService.findOne(region.getId()).block().getRegionName()).isEqualTo("Europe");
+                assertThat(countryService.findOne(country.getId()).block().getCountryName()).isEqualTo("France");
+            }
+            assertThat(cacheGets("regions", "hit")).isEqualTo(regionHits + 1);
+            assertThat(cacheGets("countries", "hit")).isEqualTo(countryHits + 1);
+
+            region.setRegionName("Western Europe");
+            regionService.update(region).block();
+
+            RegionDTO cachedRegion = regionService.findOne(region.getId()).block();
+            assertThat(cachedRegion.getRegionName()).isEqualTo("Western Europe");
+            assertThat(cachedRegion.getVersion()).isEqualTo(region.getVersion() + 1);
+            assertThat(countryService.findOne(country.getId()).block().getRegion().getId()).isEqualTo(region.getId());
+
+            country.setCountryName("French Republic");
+            countryService.update(country).block();
+
+            CountryDTO cachedCountry = countryService.findOne(country.getId()).block();
+            assertThat(cachedCountry.getCountryName()).isEqualTo("French Republic");
+            assertThat(cachedCountry.getVersion()).isEqualTo(country.getVersion() + 1);
+            assertThat(cachedCountry.getRegion().getId()).isEqualTo(region.getId());
+        } finally {
+            countryService.delete(country.getId()).block();
+            regionService.delete(region.getId()).block();
+        }
+
+        assertThat(countryService.findOne(country.getId()).blockOptional()).isEmpty();
+        assertThat(regionService.findOne(region.getId()).blockOptional()).isEmpty();
+    }
+
+    private double cacheGets(String cache, String result) {
+        return meterRegistry.get("cache.gets").tag("cache", cache).tag("result", result).functionCounter().count();
+    }
+}
@@ -1,11 +1,14 @@
 package com.github.ghrocs.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 import com.github.ghrocs.IntegrationTest;
 import com.github.ghrocs.config.Constants;
+import com.github.ghrocs.domain.Authority;
 import com.github.ghrocs.domain.User;
 import com.github.ghrocs.repository.UserRepository;
+import com.github.ghrocs.security.AuthoritiesConstants;
 import com.github.ghrocs.service.dto.AdminUserDTO;
 import java.time.Instant;
 import java.time.LocalDateTime;
@@ -13,11 +16,16 @@ import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.util.function.Tuple3;
+import reactor.util.function.Tuples;
 import tech.jhipster.security.RandomUtil;
 
 /**
@@ -44,6 +52,9 @@ class UserServiceIT {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private DatabaseClient db;
+
     private User user;
 
     @BeforeEach
@@ -145,7 +156,7 @@ class UserServiceIT {
             .collectList()
             .block();
         assertThat(users).isNotEmpty();
-        userService.removeNotActivatedUsers();
+        userService.removeNotActivatedUsersReactively().block();
         users = userRepository.findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(threeDaysAgo).collectList().block();
         assertThat(users).isEmpty();
     }
@@ -163,8 +174,139 @@ class UserServiceIT {
             .collectList()
             .block();
         assertThat(users).isEmpty();
-        userService.removeNotActivatedUsers();
+        userService.removeNotActivatedUsersReactively().block();
         Optional<User> maybeDbUser = userRepository.findById(dbUser.getId()).blockOptional();
         assertThat(maybeDbUser).contains(dbUser);
     }
+
+    @Test
+    void assertThatNotActivatedUsersAreDeletedInBatches() {
+        Instant fourDaysAgo = Instant.now().minus(4, ChronoUnit.DAYS);
+        for (int i = 0; i < 5; i++) {
+            User staleUser = new User();
+            staleUser.setLogin(DEFAULT_LOGIN + i);
+            staleUser.setPassword(RandomStringUtils.random(60));
+            staleUser.setActivated(false);
+            staleUser.setActivationKey(RandomUtil.generateActivationKey());
+            staleUser.setCreatedBy(Constants.SYSTEM);
+            User savedUser = userRepository.save(staleUser).block();
+            savedUser.setCreatedDate(fourDaysAgo);
+            userRepository.save(savedUser).block();
+            userRepository.saveUserAuthority(savedUser.getId(), AuthoritiesConstants.USER).block();
+        }
+        userRepository.save(user).block();
+
+        // more than the test purge batch size
+        assertThat(userService.removeNotActivatedUsersReactively().block()).isEqualTo(5);
+        assertThat(userRepository.findAll().collectList().block()).extracting(User::getLogin).containsExactly(DEFAULT_LOGIN);
+    }
+
+    @Test
+    void assertThatGetAllManagedUsersOnlyReturnsTheRequestedPage() {
+        savePagedUsers();
+
+        List<AdminUserDTO> page = userService.getAllManagedUsers(PageRequest.of(1, 3, Sort.by("login"))).collectList().block();
+        assertThat(page).extracting(AdminUserDTO::getLogin).containsExactly(DEFAULT_LOGIN + 3, DEFAULT_LOGIN + 4, DEFAULT_LOGIN + 5);
+        assertThat(page.get(0).getAuthorities()).containsExactly(AuthoritiesConstants.USER);
+        assertThat(page.get(1).getAuthorities()).containsExactlyInAnyOrder(AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN);
+        assertThat(page.get(0).getCreatedBy()).isEqualTo(Constants.SYSTEM);
+
+        page = userService.getAllManagedUsers(PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "login"))).collectList().block();
+        assertThat(page).extracting(AdminUserDTO::getLogin).containsExactly(DEFAULT_LOGIN + 9, DEFAULT_LOGIN + 8);
+
+        page = userService.getAllManagedUsers(PageRequest.of(4, 3, Sort.by("login"))).collectList().block();
+        assertThat(page).isEmpty();
+    }
+
+    /**
+     * Checks the rows read from the database with the query statistics of H2: the page of users and the authorities of those users only.
+     */
+    @Test
+    void assertThatGetAllManagedUsersOnlyReadsTheRowsOfThePage() {
+        assumeTrue("H2".equals(db.getConnectionFactory().getMetadata().getName()), "the query statistics are read from H2");
+        savePagedUsers();
+
+        db.sql("SET QUERY_STATISTICS FALSE").then().block();
+        db.sql("SET QUERY_STATISTICS TRUE").then().block();
+        List<Tuple3<String, Long, Long>> statements;
+        try {
+            List<AdminUserDTO> page = userService.getAllManagedUsers(PageRequest.of(1, 3, Sort.by("login"))).collectList().block();
+            assertThat(page).extracting(AdminUserDTO::getLogin).containsExactly(DEFAULT_LOGIN + 3, DEFAULT_LOGIN + 4, DEFAULT_LOGIN + 5);
+
+            statements =
+                db
+                    .sql(
+                        "SELECT sql_statement, execution_count, cumulative_row_count FROM information_schema.query_statistics " +
+                        "WHERE sql_statement LIKE '%jhi_user%' AND sql_statement NOT LIKE '%query_statistics%'"
+                    )
+                    .map(
+                        (row, metadata) ->
+                            Tuples.of(
+                                row.get("sql_statement", String.class).contains("jhi_user_authority") ? "jhi_user_authority" : "jhi_user",
+                                row.get("execution_count", Number.class).longValue(),
+                                row.get("cumulative_row_count", Number.class).longValue()
+                            )
+                    )
+                    .all()
+                    .collectList()
+                    .block();
+        } finally {
+            db.sql("SET QUERY_STATISTICS FALSE").then().block();
+        }
+
+        // one select of each table: the 3 users of the page, then the USER authority of each of them and the ADMIN one of the 2nd
+        assertThat(statements).containsExactlyInAnyOrder(Tuples.of("jhi_user", 1L, 3L), Tuples.of("jhi_user_authority", 1L, 4L));
+    }
+
+    @Test
+    void assertThatUpdateUserOnlyWritesTheChangedAuthorities() {
+        User savedUser = userRepository.save(user).block();
+        userRepository.saveUserAuthority(savedUser.getId(), AuthoritiesConstants.USER).block();
+        userRepository.saveUserAuthority(savedUser.getId(), AuthoritiesConstants.ADMIN).block();
+
+        AdminUserDTO userDTO = new AdminUserDTO(userRepository.findOneWithAuthoritiesByLogin(DEFAULT_LOGIN).block());
+        userDTO.setAuthorities(Set.of(AuthoritiesConstants.USER));
+        userService.updateUser(userDTO).block();
+
+        User updatedUser = userRepository.findOneWithAuthoritiesByLogin(DEFAULT_LOGIN).block();
+        assertThat(updatedUser.getAuthorities()).extracting(Authority::getName).containsExactly(AuthoritiesConstants.USER);
+
+        userDTO.setAuthorities(Set.of(AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN));
+        userService.updateUser(userDTO).block();
+
+        updatedUser = userRepository.findOneWithAuthoritiesByLogin(DEFAULT_LOGIN).block();
+        assertThat(updatedUser.getAuthorities())
+            .extracting(Authority::getName)
+            .containsExactlyInAnyOrder(AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN);
+    }
+
+    @Test
+    void assertThatActivateRegistrationKeepsTheAuthorities() {
+        user.setActivated(false);
+        user.setActivationKey(RandomUtil.generateActivationKey());
+        User savedUser = userRepository.save(user).block();
+        userRepository.saveUserAuthority(savedUser.getId(), AuthoritiesConstants.USER).block();
+
+        userService.activateRegistration(user.getActivationKey()).block();
+
+        User activatedUser = userRepository.findOneWithAuthoritiesByLogin(DEFAULT_LOGIN).block();
+        assertThat(activatedUser.isActivated()).isTrue();
+        assertThat(activatedUser.getAuthorities()).extracting(Authority::getName).containsExactly(AuthoritiesConstants.USER);
+    }
+
+    private void savePagedUsers() {
+        for (int i = 0; i < 10; i++) {
+            User pagedUser = new User();
+            pagedUser.setLogin(DEFAULT_LOGIN + i);
+            pagedUser.setPassword(RandomStringUtils.random(60));
+            pagedUser.setActivated(true);
+            pagedUser.setEmail(i + DEFAULT_EMAIL);
+            pagedUser.setCreatedBy(Constants.SYSTEM);
+            User savedUser = userRepository.save(pagedUser).block();
+            userRepository.saveUserAuthority(savedUser.getId(), AuthoritiesConstants.USER).block();
+            if (i % 2 == 0) {
+                userRepository.saveUserAuthority(savedUser.getId(), AuthoritiesConstants.ADMIN).block();
+            }
+        }
+    }
 }
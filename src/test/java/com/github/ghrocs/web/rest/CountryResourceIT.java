@@ -1,6 +1,7 @@
 package com.github.ghrocs.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.is;
 
@@ -8,9 +9,13 @@ import com.github.ghrocs.IntegrationTest;
 import com.github.ghrocs.domain.Country;
 import com.github.ghrocs.domain.enumeration.Language;
 import com.github.ghrocs.repository.CountryRepository;
+import com.github.ghrocs.security.AuthoritiesConstants;
 import com.github.ghrocs.service.EntityManager;
+import com.github.ghrocs.service.dto.BulkImportResultDTO;
 import com.github.ghrocs.service.dto.CountryDTO;
 import com.github.ghrocs.service.mapper.CountryMapper;
+import com.github.ghrocs.web.util.BulkImportUtil;
+import java.net.URI;
 import java.time.Duration;
 import java.util.List;
 import java.util.Random;
@@ -23,8 +28,11 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
 /**
@@ -147,6 +155,34 @@ class CountryResourceIT {
         assertThat(countryList).hasSize(databaseSizeBeforeCreate);
     }
 
+    @Test
+    void getAllCountriesAsStream() {
+        // Initialize the database
+        countryRepository.save(country).block();
+
+        List<Country> countryList = webTestClient
+            .get()
+            .uri(ENTITY_API_URL)
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+            .returnResult(CountryDTO.class)
+            .getResponseBody()
+            .map(countryMapper::toEntity)
+            .filter(country::equals)
+            .collectList()
+            .block(Duration.ofSeconds(5));
+
+        assertThat(countryList).isNotNull();
+        assertThat(countryList).hasSize(1);
+        Country testCountry = countryList.get(0);
+        assertThat(testCountry.getCountryName()).isEqualTo(DEFAULT_COUNTRY_NAME);
+        assertThat(testCountry.getLanguage()).isEqualTo(DEFAULT_LANGUAGE);
+    }
+
     @Test
     void getAllCountries() {
         // Initialize the database
@@ -171,6 +207,170 @@ class CountryResourceIT {
             .value(hasItem(DEFAULT_LANGUAGE.toString()));
     }
 
+    @Test
+    void getAllCountriesWithKeysetPagination() {
+        // Initialize the database
+        countryRepository.save(country).block();
+        countryRepository.save(new Country().countryName(UPDATED_COUNTRY_NAME).language(UPDATED_LANGUAGE)).block();
+        countryRepository.save(new Country().countryName("CCCCCCCCCC").language(DEFAULT_LANGUAGE)).block();
+
+        // Get the first page, without counting the countries
+        EntityExchangeResult<byte[]> firstPage = webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?after=&size=2&sort=countryName,asc")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .doesNotExist("X-Total-Count")
+            .expectBody()
+            .jsonPath("$.[*].countryName")
+            .value(contains(DEFAULT_COUNTRY_NAME, UPDATED_COUNTRY_NAME))
+            .returnResult();
+
+        String link = firstPage.getResponseHeaders().getFirst(HttpHeaders.LINK);
+        assertThat(link).contains("rel=\"next\"");
+        String next = link.substring(link.indexOf('<') + 1, link.indexOf(">; rel=\"next\""));
+
+        // Get the next and last page, with the count
+        EntityExchangeResult<byte[]> lastPage = webTestClient
+            .get()
+            .uri(URI.create(next + "&total=true"))
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .valueEquals("X-Total-Count", "3")
+            .expectBody()
+            .jsonPath("$.[*].countryName")
+            .value(contains("CCCCCCCCCC"))
+            .returnResult();
+
+        assertThat(lastPage.getResponseHeaders().getFirst(HttpHeaders.LINK)).doesNotContain("rel=\"next\"");
+    }
+
+    @Test
+    void getAllCountriesWithInvalidCursor() {
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?after=invalid&sort=countryName,asc")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
+    @Test
+    void getAllCountriesWithKeysetPaginationSortedByTheirRegion() {
+        // the region is a DTO property, but not a column of the country
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?after=&sort=region,asc")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
+    @Test
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    void importCountriesFromNdjson() {
+        int databaseSizeBeforeImport = countryRepository.findAll().collectList().block().size();
+        String body =
+            "{\"countryName\":\"" +
+            DEFAULT_COUNTRY_NAME +
+            "\",\"language\":\"FRENCH\"}\n" +
+            "\n" +
+            "{\"countryName\":\"" +
+            UPDATED_COUNTRY_NAME +
+            "\",\"language\":\"UNKNOWN\"}\n" +
+            "{\"id\":1,\"countryName\":\"" +
+            UPDATED_COUNTRY_NAME +
+            "\"}\n";
+
+        List<BulkImportResultDTO> results = webTestClient
+            .post()
+            .uri(ENTITY_API_URL + "/bulk")
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .accept(MediaType.APPLICATION_NDJSON)
+            .bodyValue(body)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .returnResult(BulkImportResultDTO.class)
+            .getResponseBody()
+            .collectList()
+            .block();
+
+        assertThat(results).hasSize(1);
+        assertThat(results.get(0).getImported()).isEqualTo(1);
+        assertThat(results.get(0).getRejected()).isEqualTo(2);
+        assertThat(results.get(0).getErrors()).hasSize(2).anyMatch(error -> error.startsWith("line 3:"));
+        List<Country> countryList = countryRepository.findAll().collectList().block();
+        assertThat(countryList).hasSize(databaseSizeBeforeImport + 1);
+        assertThat(countryList).extracting(Country::getCountryName).contains(DEFAULT_COUNTRY_NAME).doesNotContain(UPDATED_COUNTRY_NAME);
+    }
+
+    @Test
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    void importCountriesFromCsv() {
+        int databaseSizeBeforeImport = countryRepository.findAll().collectList().block().size();
+        String body = "countryName;language\n\"" + DEFAULT_COUNTRY_NAME + ";\";FRENCH\n" + UPDATED_COUNTRY_NAME + ";\n";
+
+        webTestClient
+            .post()
+            .uri(ENTITY_API_URL + "/bulk")
+            .contentType(MediaType.parseMediaType(BulkImportUtil.TEXT_CSV_VALUE))
+            .accept(MediaType.APPLICATION_NDJSON)
+            .bodyValue(body)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.imported")
+            .isEqualTo(2)
+            .jsonPath("$.rejected")
+            .isEqualTo(0);
+
+        List<Country> countryList = countryRepository.findAll().collectList().block();
+        assertThat(countryList).hasSize(databaseSizeBeforeImport + 2);
+        assertThat(countryList).extracting(Country::getCountryName).contains(DEFAULT_COUNTRY_NAME + ";", UPDATED_COUNTRY_NAME);
+    }
+
+    @Test
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    void importCountriesFromCsvWithConflictingHeader() {
+        int databaseSizeBeforeImport = countryRepository.findAll().collectList().block().size();
+        String body = "countryName,region,region.id\n" + DEFAULT_COUNTRY_NAME + ",1,1\n";
+
+        webTestClient
+            .post()
+            .uri(ENTITY_API_URL + "/bulk")
+            .contentType(MediaType.parseMediaType(BulkImportUtil.TEXT_CSV_VALUE))
+            .accept(MediaType.APPLICATION_NDJSON)
+            .bodyValue(body)
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+
+        List<Country> countryList = countryRepository.findAll().collectList().block();
+        assertThat(countryList).hasSize(databaseSizeBeforeImport);
+    }
+
+    @Test
+    void importCountriesRequiresAdmin() {
+        webTestClient
+            .post()
+            .uri(ENTITY_API_URL + "/bulk")
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .bodyValue("{\"countryName\":\"" + DEFAULT_COUNTRY_NAME + "\"}\n")
+            .exchange()
+            .expectStatus()
+            .isForbidden();
+    }
+
     @Test
     void getCountry() {
         // Initialize the database
@@ -236,6 +436,73 @@ class CountryResourceIT {
         assertThat(testCountry.getLanguage()).isEqualTo(UPDATED_LANGUAGE);
     }
 
+    @Test
+    void putStaleCountry() throws Exception {
+        // Initialize the database
+        countryRepository.save(country).block();
+
+        // Update the country twice from the same version
+        CountryDTO countryDTO = countryMapper.toDto(countryRepository.findById(country.getId()).block());
+        countryDTO.setCountryName(UPDATED_COUNTRY_NAME);
+
+        webTestClient
+            .put()
+            .uri(ENTITY_API_URL_ID, countryDTO.getId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(countryDTO))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.version")
+            .value(is(1));
+
+        countryDTO.setCountryName(DEFAULT_COUNTRY_NAME);
+
+        // The second update doesn't overwrite the first one
+        webTestClient
+            .put()
+            .uri(ENTITY_API_URL_ID, countryDTO.getId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(countryDTO))
+            .exchange()
+            .expectStatus()
+            .isEqualTo(HttpStatus.CONFLICT);
+
+        // Validate the Country in the database
+        Country testCountry = countryRepository.findById(country.getId()).block();
+        assertThat(testCountry.getCountryName()).isEqualTo(UPDATED_COUNTRY_NAME);
+        assertThat(testCountry.getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    void putWithoutVersionCountry() throws Exception {
+        // Initialize the database
+        countryRepository.save(country).block();
+
+        // Update the country without its version
+        CountryDTO countryDTO = countryMapper.toDto(countryRepository.findById(country.getId()).block());
+        countryDTO.setCountryName(UPDATED_COUNTRY_NAME);
+        countryDTO.setVersion(null);
+
+        webTestClient
+            .put()
+            .uri(ENTITY_API_URL_ID, countryDTO.getId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(countryDTO))
+            .exchange()
+            .expectStatus()
+            .isBadRequest()
+            .expectBody()
+            .jsonPath("$.message")
+            .isEqualTo("error.versionnull");
+
+        // Validate the Country in the database
+        Country testCountry = countryRepository.findById(country.getId()).block();
+        assertThat(testCountry.getCountryName()).isEqualTo(DEFAULT_COUNTRY_NAME);
+        assertThat(testCountry.getVersion()).isEqualTo(0L);
+    }
+
     @Test
     void putNonExistingCountry() throws Exception {
         int databaseSizeBeforeUpdate = countryRepository.findAll().collectList().block().size();
@@ -325,7 +592,10 @@ class CountryResourceIT {
             .bodyValue(TestUtil.convertObjectToJsonBytes(partialUpdatedCountry))
             .exchange()
             .expectStatus()
-            .isOk();
+            .isOk()
+            .expectBody()
+            .jsonPath("$.version")
+            .value(is(1));
 
         // Validate the Country in the database
         List<Country> countryList = countryRepository.findAll().collectList().block();
@@ -365,6 +635,50 @@ class CountryResourceIT {
         assertThat(testCountry.getLanguage()).isEqualTo(UPDATED_LANGUAGE);
     }
 
+    @Test
+    void partialUpdateStaleCountryWithPatch() throws Exception {
+        // Initialize the database
+        countryRepository.save(country).block();
+
+        // Update the country twice from the same version, without reading it first
+        CountryDTO partialUpdatedCountry = new CountryDTO();
+        partialUpdatedCountry.setId(country.getId());
+        partialUpdatedCountry.setVersion(0L);
+        partialUpdatedCountry.setCountryName(UPDATED_COUNTRY_NAME);
+
+        webTestClient
+            .patch()
+            .uri(ENTITY_API_URL_ID, partialUpdatedCountry.getId())
+            .contentType(MediaType.valueOf("application/merge-patch+json"))
+            .bodyValue(TestUtil.convertObjectToJsonBytes(partialUpdatedCountry))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.countryName")
+            .value(is(UPDATED_COUNTRY_NAME))
+            .jsonPath("$.version")
+            .value(is(1));
+
+        partialUpdatedCountry.setCountryName(DEFAULT_COUNTRY_NAME);
+
+        // The second update doesn't overwrite the first one
+        webTestClient
+            .patch()
+            .uri(ENTITY_API_URL_ID, partialUpdatedCountry.getId())
+            .contentType(MediaType.valueOf("application/merge-patch+json"))
+            .bodyValue(TestUtil.convertObjectToJsonBytes(partialUpdatedCountry))
+            .exchange()
+            .expectStatus()
+            .isEqualTo(HttpStatus.CONFLICT);
+
+        // Validate the Country in the database
+        Country testCountry = countryRepository.findById(country.getId()).block();
+        assertThat(testCountry.getCountryName()).isEqualTo(UPDATED_COUNTRY_NAME);
+        assertThat(testCountry.getLanguage()).isEqualTo(DEFAULT_LANGUAGE);
+        assertThat(testCountry.getVersion()).isEqualTo(1L);
+    }
+
     @Test
     void patchNonExistingCountry() throws Exception {
         int databaseSizeBeforeUpdate = countryRepository.findAll().collectList().block().size();
@@ -373,7 +687,7 @@ class CountryResourceIT {
         // Create the Country
         CountryDTO countryDTO = countryMapper.toDto(country);
 
-        // If the entity doesn't have an ID, it will throw BadRequestAlertException
+        // If the entity doesn't exist, it isn't found
         webTestClient
             .patch()
             .uri(ENTITY_API_URL_ID, countryDTO.getId())
@@ -381,7 +695,7 @@ class CountryResourceIT {
             .bodyValue(TestUtil.convertObjectToJsonBytes(countryDTO))
             .exchange()
             .expectStatus()
-            .isBadRequest();
+            .isNotFound();
 
         // Validate the Country in the database
         List<Country> countryList = countryRepository.findAll().collectList().block();
@@ -7,7 +7,9 @@ import static org.hamcrest.Matchers.is;
 import com.github.ghrocs.IntegrationTest;
 import com.github.ghrocs.domain.Region;
 import com.github.ghrocs.repository.RegionRepository;
+import com.github.ghrocs.security.AuthoritiesConstants;
 import com.github.ghrocs.service.EntityManager;
+import com.github.ghrocs.service.dto.BulkImportResultDTO;
 import com.github.ghrocs.service.dto.RegionDTO;
 import com.github.ghrocs.service.mapper.RegionMapper;
 import java.time.Duration;
@@ -22,6 +24,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.reactive.server.WebTestClient;
@@ -119,6 +122,35 @@ class RegionResourceIT {
         assertThat(testRegion.getRegionName()).isEqualTo(DEFAULT_REGION_NAME);
     }
 
+    @Test
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    void importRegionsInBatches() {
+        int databaseSizeBeforeImport = regionRepository.findAll().collectList().block().size();
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 1200; i++) {
+            body.append("{\"regionName\":\"").append(DEFAULT_REGION_NAME).append(i).append("\"}\n");
+        }
+
+        List<BulkImportResultDTO> results = webTestClient
+            .post()
+            .uri(ENTITY_API_URL + "/bulk")
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .accept(MediaType.APPLICATION_NDJSON)
+            .bodyValue(body.toString())
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .returnResult(BulkImportResultDTO.class)
+            .getResponseBody()
+            .collectList()
+            .block();
+
+        // with the default batch size of 500
+        assertThat(results).extracting(BulkImportResultDTO::getImported).containsExactly(500, 500, 200);
+        assertThat(results).extracting(BulkImportResultDTO::getFirstLine).containsExactly(1L, 501L, 1001L);
+        assertThat(regionRepository.findAll().collectList().block()).hasSize(databaseSizeBeforeImport + 1200);
+    }
+
     @Test
     void createRegionWithExistingId() throws Exception {
         // Create the Region with an existing ID
@@ -253,6 +285,73 @@ class RegionResourceIT {
         assertThat(testRegion.getRegionName()).isEqualTo(UPDATED_REGION_NAME);
     }
 
+    @Test
+    void putStaleRegion() throws Exception {
+        // Initialize the database
+        regionRepository.save(region).block();
+
+        // Update the region twice from the same version
+        RegionDTO regionDTO = regionMapper.toDto(regionRepository.findById(region.getId()).block());
+        regionDTO.setRegionName(UPDATED_REGION_NAME);
+
+        webTestClient
+            .put()
+            .uri(ENTITY_API_URL_ID, regionDTO.getId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(regionDTO))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.version")
+            .value(is(1));
+
+        regionDTO.setRegionName(DEFAULT_REGION_NAME);
+
+        // The second update doesn't overwrite the first one
+        webTestClient
+            .put()
+            .uri(ENTITY_API_URL_ID, regionDTO.getId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(regionDTO))
+            .exchange()
+            .expectStatus()
+            .isEqualTo(HttpStatus.CONFLICT);
+
+        // Validate the Region in the database
+        Region testRegion = regionRepository.findById(region.getId()).block();
+        assertThat(testRegion.getRegionName()).isEqualTo(UPDATED_REGION_NAME);
+        assertThat(testRegion.getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    void putWithoutVersionRegion() throws Exception {
+        // Initialize the database
+        regionRepository.save(region).block();
+
+        // Update the region without its version
+        RegionDTO regionDTO = regionMapper.toDto(regionRepository.findById(region.getId()).block());
+        regionDTO.setRegionName(UPDATED_REGION_NAME);
+        regionDTO.setVersion(null);
+
+        webTestClient
+            .put()
+            .uri(ENTITY_API_URL_ID, regionDTO.getId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(regionDTO))
+            .exchange()
+            .expectStatus()
+            .isBadRequest()
+            .expectBody()
+            .jsonPath("$.message")
+            .isEqualTo("error.versionnull");
+
+        // Validate the Region in the database
+        Region testRegion = regionRepository.findById(region.getId()).block();
+        assertThat(testRegion.getRegionName()).isEqualTo(DEFAULT_REGION_NAME);
+        assertThat(testRegion.getVersion()).isEqualTo(0L);
+    }
+
     @Test
     void putNonExistingRegion() throws Exception {
         int databaseSizeBeforeUpdate = regionRepository.findAll().collectList().block().size();
@@ -340,7 +439,10 @@ class RegionResourceIT {
             .bodyValue(TestUtil.convertObjectToJsonBytes(partialUpdatedRegion))
             .exchange()
             .expectStatus()
-            .isOk();
+            .isOk()
+            .expectBody()
+            .jsonPath("$.version")
+            .value(is(1));
 
         // Validate the Region in the database
         List<Region> regionList = regionRepository.findAll().collectList().block();
@@ -378,6 +480,49 @@ class RegionResourceIT {
         assertThat(testRegion.getRegionName()).isEqualTo(UPDATED_REGION_NAME);
     }
 
+    @Test
+    void partialUpdateStaleRegionWithPatch() throws Exception {
+        // Initialize the database
+        regionRepository.save(region).block();
+
+        // Update the region twice from the same version, without reading it first
+        RegionDTO partialUpdatedRegion = new RegionDTO();
+        partialUpdatedRegion.setId(region.getId());
+        partialUpdatedRegion.setVersion(0L);
+        partialUpdatedRegion.setRegionName(UPDATED_REGION_NAME);
+
+        webTestClient
+            .patch()
+            .uri(ENTITY_API_URL_ID, partialUpdatedRegion.getId())
+            .contentType(MediaType.valueOf("application/merge-patch+json"))
+            .bodyValue(TestUtil.convertObjectToJsonBytes(partialUpdatedRegion))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.regionName")
+            .value(is(UPDATED_REGION_NAME))
+            .jsonPath("$.version")
+            .value(is(1));
+
+        partialUpdatedRegion.setRegionName(DEFAULT_REGION_NAME);
+
+        // The second update doesn't overwrite the first one
+        webTestClient
+            .patch()
+            .uri(ENTITY_API_URL_ID, partialUpdatedRegion.getId())
+            .contentType(MediaType.valueOf("application/merge-patch+json"))
+            .bodyValue(TestUtil.convertObjectToJsonBytes(partialUpdatedRegion))
+            .exchange()
+            .expectStatus()
+            .isEqualTo(HttpStatus.CONFLICT);
+
+        // Validate the Region in the database
+        Region testRegion = regionRepository.findById(region.getId()).block();
+        assertThat(testRegion.getRegionName()).isEqualTo(UPDATED_REGION_NAME);
+        assertThat(testRegion.getVersion()).isEqualTo(1L);
+    }
+
     @Test
     void patchNonExistingRegion() throws Exception {
         int databaseSizeBeforeUpdate = regionRepository.findAll().collectList().block().size();
@@ -386,7 +531,7 @@ class RegionResourceIT {
         // Create the Region
         RegionDTO regionDTO = regionMapper.toDto(region);
 
-        // If the entity doesn't have an ID, it will throw BadRequestAlertException
+        // If the entity doesn't exist, it isn't found
         webTestClient
             .patch()
             .uri(ENTITY_API_URL_ID, regionDTO.getId())
@@ -394,7 +539,7 @@ class RegionResourceIT {
             .bodyValue(TestUtil.convertObjectToJsonBytes(regionDTO))
             .exchange()
             .expectStatus()
-            .isBadRequest();
+            .isNotFound();
 
         // Validate the Region in the database
         List<Region> regionList = regionRepository.findAll().collectList().block();
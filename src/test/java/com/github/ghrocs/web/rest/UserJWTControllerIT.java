@@ -1,6 +1,9 @@
 package com.github.ghrocs.web.rest;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 import com.github.ghrocs.IntegrationTest;
+import com.github.ghrocs.config.ApplicationProperties;
 import com.github.ghrocs.config.Constants;
 import com.github.ghrocs.domain.User;
 import com.github.ghrocs.repository.UserRepository;
@@ -8,7 +11,10 @@ import com.github.ghrocs.web.rest.vm.LoginVM;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
@@ -28,6 +34,9 @@ class UserJWTControllerIT {
     @Autowired
     private WebTestClient webTestClient;
 
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
     @Test
     void testAuthorize() throws Exception {
         User user = new User();
@@ -87,6 +96,62 @@ class UserJWTControllerIT {
             .isNotEmpty();
     }
 
+    @Test
+    void testAuthorizeUpgradesThePasswordHash() throws Exception {
+        User user = new User();
+        user.setLogin("user-jwt-controller-upgrade");
+        user.setEmail("user-jwt-controller-upgrade@example.com");
+        user.setActivated(true);
+        user.setPassword(new BCryptPasswordEncoder(4).encode("test"));
+        user.setCreatedBy(Constants.SYSTEM);
+
+        userRepository.save(user).block();
+
+        LoginVM login = new LoginVM();
+        login.setUsername("user-jwt-controller-upgrade");
+        login.setPassword("test");
+        webTestClient
+            .post()
+            .uri("/api/authenticate")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(login))
+            .exchange()
+            .expectStatus()
+            .isOk();
+
+        String password = userRepository.findOneByLogin("user-jwt-controller-upgrade").block().getPassword();
+        assertThat(password).startsWith("$2a$05$");
+        assertThat(passwordEncoder.matches("test", password)).isTrue();
+        assertThat(passwordEncoder.upgradeEncoding(password)).isFalse();
+    }
+
+    @Test
+    void testAuthorizeKeepsAStrongerPasswordHash() throws Exception {
+        String strongerPassword = new BCryptPasswordEncoder(6).encode("test");
+        User user = new User();
+        user.setLogin("user-jwt-controller-keep");
+        user.setEmail("user-jwt-controller-keep@example.com");
+        user.setActivated(true);
+        user.setPassword(strongerPassword);
+        user.setCreatedBy(Constants.SYSTEM);
+
+        userRepository.save(user).block();
+
+        LoginVM login = new LoginVM();
+        login.setUsername("user-jwt-controller-keep");
+        login.setPassword("test");
+        webTestClient
+            .post()
+            .uri("/api/authenticate")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(login))
+            .exchange()
+            .expectStatus()
+            .isOk();
+
+        assertThat(userRepository.findOneByLogin("user-jwt-controller-keep").block().getPassword()).isEqualTo(strongerPassword);
+    }
+
     @Test
     void testAuthorizeFails() throws Exception {
         LoginVM login = new LoginVM();
@@ -106,4 +171,34 @@ class UserJWTControllerIT {
             .jsonPath("$.id_token")
             .doesNotExist();
     }
+
+    @Test
+    void testAuthorizeIsThrottledAfterTooManyFailures() throws Exception {
+        LoginVM login = new LoginVM();
+        login.setUsername("user-jwt-controller-throttled");
+        login.setPassword("wrong password");
+        for (int i = 0; i < applicationProperties.getLoginRateLimit().getPerLogin().getCapacity(); i++) {
+            webTestClient
+                .post()
+                .uri("/api/authenticate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(TestUtil.convertObjectToJsonBytes(login))
+                .exchange()
+                .expectStatus()
+                .isUnauthorized();
+        }
+
+        webTestClient
+            .post()
+            .uri("/api/authenticate")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(login))
+            .exchange()
+            .expectStatus()
+            .isEqualTo(HttpStatus.TOO_MANY_REQUESTS)
+            .expectHeader()
+            .exists(HttpHeaders.RETRY_AFTER)
+            .expectHeader()
+            .doesNotExist("Authorization");
+    }
 }
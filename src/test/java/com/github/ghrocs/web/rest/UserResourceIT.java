@@ -14,6 +14,8 @@ import com.github.ghrocs.service.dto.AdminUserDTO;
 import com.github.ghrocs.service.dto.UserDTO;
 import com.github.ghrocs.service.mapper.UserMapper;
 import com.github.ghrocs.web.rest.vm.ManagedUserVM;
+import java.net.URI;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
 import java.util.function.Consumer;
@@ -22,8 +24,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
 /**
@@ -287,6 +291,76 @@ class UserResourceIT {
         assertThat(foundUser.getAuthorities()).containsExactly(AuthoritiesConstants.USER);
     }
 
+    @Test
+    void getAllUsersWithKeysetPagination() {
+        // Initialize the database, the users are inserted in another order than the one of their logins
+        userRepository.save(user).block();
+        for (int i : new int[] { 3, 1, 4, 2 }) {
+            User otherUser = createEntity(em);
+            otherUser.setLogin(DEFAULT_LOGIN + i);
+            userRepository.save(otherUser).block();
+        }
+
+        // Get the users page by page, following the next links
+        assertThat(getAllUserLoginsWithKeysetPagination("login,asc"))
+            .containsExactly(DEFAULT_LOGIN, DEFAULT_LOGIN + 1, DEFAULT_LOGIN + 2, DEFAULT_LOGIN + 3, DEFAULT_LOGIN + 4);
+        assertThat(getAllUserLoginsWithKeysetPagination("login,desc"))
+            .containsExactly(DEFAULT_LOGIN + 4, DEFAULT_LOGIN + 3, DEFAULT_LOGIN + 2, DEFAULT_LOGIN + 1, DEFAULT_LOGIN);
+    }
+
+    private List<String> getAllUserLoginsWithKeysetPagination(String sort) {
+        List<String> logins = new ArrayList<>();
+        String uri = "/api/admin/users?after=&size=2&sort=" + sort;
+        while (uri != null) {
+            EntityExchangeResult<List<AdminUserDTO>> page = webTestClient
+                .get()
+                .uri(URI.create(uri))
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .doesNotExist("X-Total-Count")
+                .expectBodyList(AdminUserDTO.class)
+                .returnResult();
+            page.getResponseBody().forEach(userDTO -> logins.add(userDTO.getLogin()));
+
+            String link = page.getResponseHeaders().getFirst(HttpHeaders.LINK);
+            uri = link.contains("rel=\"next\"") ? link.substring(link.indexOf('<') + 1, link.indexOf(">; rel=\"next\"")) : null;
+        }
+        return logins;
+    }
+
+    @Test
+    void getAllUsersAsStream() {
+        // Initialize the database
+        userRepository.save(user).block();
+        authorityRepository
+            .findById(AuthoritiesConstants.USER)
+            .flatMap(authority -> userRepository.saveUserAuthority(user.getId(), authority.getName()))
+            .block();
+
+        // Get all the users
+        List<AdminUserDTO> foundUsers = webTestClient
+            .get()
+            .uri("/api/admin/users")
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+            .returnResult(AdminUserDTO.class)
+            .getResponseBody()
+            .filter(foundUser -> DEFAULT_LOGIN.equals(foundUser.getLogin()))
+            .collectList()
+            .block(Duration.ofSeconds(5));
+
+        assertThat(foundUsers).hasSize(1);
+        assertThat(foundUsers.get(0).getEmail()).isEqualTo(DEFAULT_EMAIL);
+        assertThat(foundUsers.get(0).getAuthorities()).containsExactly(AuthoritiesConstants.USER);
+    }
+
     @Test
     void getUser() {
         // Initialize the database